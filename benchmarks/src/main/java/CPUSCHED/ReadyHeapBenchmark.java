@@ -0,0 +1,87 @@
+package CPUSCHED;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+// This benchmark measures the ready queue on its own at depths of 1000, 100000 and 10^7 queued processes, the range from the spec trace to an overloaded 10^8-row run. offerPoll is the hold model: the heap stays at 'depth' entries and every operation polls the process that would run next and queues one arrival in its place, keyed by (burst, arrival) the way SJF keys it, with a random burst of 1-50 and an arrival clock that only moves forward. offerPollPriorityQueue does the same on the structure ReadyHeap replaced, a PriorityQueue of boxed rows with a comparator reading the burst, arrival and id columns. decreaseKey lowers the burst of a random queued process by 1-50, the operation a preemptive policy needs when a queued process's remaining time changes; every process drifts down at the same average rate, so the spread of keys stays about the same as the run goes on. Random values are drawn ahead of time so the score is the queue and not the random number generator.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadyHeapBenchmark {
+    private static final int NOISE = 1 << 20; // pre-drawn random values, cycled
+    private static final int MAX_BURST = 50;
+
+    @Param({"1000", "100000", "10000000"})
+    int depth;
+
+    private ReadyHeap heap;
+    private PriorityQueue<Integer> queue;
+    private int[] burst;
+    private int[] arrival;
+    private int[] bursts;   // NOISE random bursts 1-50
+    private int[] rows;     // NOISE random rows below depth
+    private int next;
+    private int clock;
+
+    @Setup(Level.Trial)
+    public void fill(BenchmarkParams params) {
+        SplittableRandom r = new SplittableRandom(42);
+        bursts = new int[NOISE];
+        rows = new int[NOISE];
+        for (int i = 0; i < NOISE; i++) {
+            bursts[i] = 1 + r.nextInt(MAX_BURST);
+            rows[i] = r.nextInt(depth);
+        }
+        burst = new int[depth];
+        arrival = new int[depth];
+        for (int row = 0; row < depth; row++) {
+            burst[row] = 1 + r.nextInt(MAX_BURST);
+            arrival[row] = clock++;
+        }
+        if (params.getBenchmark().endsWith("PriorityQueue")) {
+            queue = new PriorityQueue<>(depth, (a, b) -> burst[a] != burst[b] ? Integer.compare(burst[a], burst[b])
+                    : arrival[a] != arrival[b] ? Integer.compare(arrival[a], arrival[b]) : Integer.compare(a, b));
+            for (int row = 0; row < depth; row++) queue.add(row);
+        } else {
+            heap = new ReadyHeap(depth);
+            for (int row = 0; row < depth; row++) heap.add(row, ReadyHeap.key(burst[row], arrival[row]), row + 1);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void release() {
+        heap = null;
+        queue = null;
+    }
+
+    @Benchmark
+    public int offerPoll() {
+        int row = heap.poll();
+        int b = bursts[next++ & (NOISE - 1)];
+        heap.add(row, ReadyHeap.key(b, clock++), row + 1);
+        return row;
+    }
+
+    @Benchmark
+    public int offerPollPriorityQueue() {
+        int row = queue.poll();
+        burst[row] = bursts[next++ & (NOISE - 1)];
+        arrival[row] = clock++;
+        queue.add(row);
+        return row;
+    }
+
+    @Benchmark
+    public long decreaseKey() {
+        int i = next++ & (NOISE - 1);
+        int row = rows[i];
+        long key = heap.keyOf(row) - ((long) bursts[i] << 32);
+        heap.decreaseKey(row, key);
+        return key;
+    }
+}
@@ -0,0 +1,115 @@
+package CPUSCHED;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// This benchmark times the two halves of a CPUScheduler run separately, over trace sizes from the 500-process spec size upwards: parse loads a whole text trace file into a ProcessTable, parseBinary loads the same trace from the binary columnar format, and simulate runs every process of an already loaded trace through the scheduler with one policy, on one core, exactly as "CPUScheduler <trace> <policy> --limit all" does minus the report. The traces have the shape of GenerateData's default datafile.txt (arrivals 0-29 apart, bursts 1-50, priority 0-9), with a fixed seed per size, and are written once to a cpusched-bench folder under java.io.tmpdir and reused by later forks and runs. The default sizes stop at 10^7; 10^8 rows is a 1.3 GB file and needs about 4 GB of heap for the simulation, so it is only run when asked for (see benchmarks/README.md). The score is the average time per call: at the large sizes one call is a whole iteration.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SchedulerBenchmark {
+    @State(Scope.Benchmark)
+    public static class Trace {
+        @Param({"500", "100000", "10000000"})
+        int rows;
+
+        String file;
+
+        @Setup(Level.Trial)
+        public void prepare() throws IOException {
+            file = traceFile(rows).toString();
+        }
+    }
+
+    // The same trace in the binary columnar format, converted from the text file once and cached next to it.
+    @State(Scope.Benchmark)
+    public static class BinaryFile {
+        String file;
+
+        @Setup(Level.Trial)
+        public void prepare(Trace trace) throws IOException {
+            file = binaryFile(trace.rows).toString();
+        }
+    }
+
+    // A trace loaded once per trial; each simulation runs over its own run view of it, as ParameterSweep does.
+    @State(Scope.Benchmark)
+    public static class LoadedTrace {
+        @Param({"FIFO", "SJF", "SRTF", "RR", "PRIORITY", "PRIORITY_P", "MLFQ"})
+        String policy;
+
+        ProcessTable table;
+
+        @Setup(Level.Trial)
+        public void load(Trace trace) throws IOException {
+            table = ProcessTable.load(trace.file);
+        }
+
+        @TearDown(Level.Trial)
+        public void release() {
+            table = null;
+        }
+    }
+
+    @Benchmark
+    public ProcessTable parse(Trace trace) throws IOException {
+        return ProcessTable.load(trace.file);
+    }
+
+    @Benchmark
+    public ProcessTable parseBinary(BinaryFile trace) throws IOException {
+        return ProcessTable.load(trace.file);
+    }
+
+    @Benchmark
+    public RunStats simulate(LoadedTrace trace) throws IOException {
+        return SchedulerEngine.run(ArrivalFeed.of(trace.table.runView()), SchedulingPolicy.create(trace.policy, 4, 3), Long.MAX_VALUE);
+    }
+
+    // Returns the trace of the given size, writing it first if an earlier run has not. The file is written under a temporary name and moved into place, so a run that is killed halfway never leaves a short trace behind.
+    static Path traceFile(int rows) throws IOException {
+        Path dir = Paths.get(System.getProperty("java.io.tmpdir"), "cpusched-bench");
+        Path file = dir.resolve("trace-" + rows + ".txt");
+        if (Files.exists(file)) return file;
+        Files.createDirectories(dir);
+        Path partial = Files.createTempFile(dir, "trace-" + rows, ".part");
+        Random r = new Random(42L + rows);
+        try (BufferedWriter w = Files.newBufferedWriter(partial)) {
+            w.write("ArrivalTime CPUBurstlength Priority\n");
+            int arrival = 0;
+            for (int i = 0; i < rows; i++) {
+                arrival += r.nextInt(30);
+                w.write(arrival + " " + (1 + r.nextInt(50)) + " " + r.nextInt(10) + "\n");
+            }
+        }
+        Files.move(partial, file, StandardCopyOption.ATOMIC_MOVE);
+        return file;
+    }
+
+    // The binary form of traceFile(rows), moved into place the same way.
+    static Path binaryFile(int rows) throws IOException {
+        Path text = traceFile(rows);
+        Path file = text.resolveSibling("trace-" + rows + ".bin");
+        if (Files.exists(file)) return file;
+        ProcessTable t = ProcessTable.load(text.toString());
+        Path partial = Files.createTempFile(text.getParent(), "trace-" + rows, ".part");
+        try (FileChannel out = FileChannel.open(partial, StandardOpenOption.WRITE)) {
+            BinaryTrace.writeHeader(out, t.size(), true);
+            BinaryTrace.writeColumn(out, t.size(), 0, 0, t.arrival, t.size());
+            BinaryTrace.writeColumn(out, t.size(), 1, 0, t.burst, t.size());
+            BinaryTrace.writeColumn(out, t.size(), 2, 0, t.priority, t.size());
+        }
+        Files.move(partial, file, StandardCopyOption.ATOMIC_MOVE);
+        return file;
+    }
+}
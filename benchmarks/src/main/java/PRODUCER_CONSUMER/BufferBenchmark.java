@@ -0,0 +1,138 @@
+package PRODUCER_CONSUMER;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.runner.IterationType;
+
+// This benchmark measures put/take throughput and hand-off latency of the three RecordBuffer implementations (the semaphore BoundedBuffer, the ring and the ArrayBlockingQueue wrapper) over a matrix of producer count, consumer count and capacity. One invocation moves RECORDS records from 'producers' threads to 'consumers' threads through a fresh buffer, the way ProducerConsumer does with --no-sleep: no pause between puts, records put and taken one at a time, and the last producer to finish puts one poison pill per consumer. The score is records per second. Each consumer also measures how long every record sat in the buffer (from just before its put to just after its take), and the mean and worst of those show up as the secondary results latencyAvgNs and latencyMaxNs. The producer and consumer threads are started once per trial and reused, so starting threads is not part of the measurement, and the records are made once per trial, so allocation is not either.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BufferBenchmark {
+    static final int RECORDS = 100_000;
+
+    @Param({"semaphore", "ring", "abq"})
+    String kind;
+
+    @Param({"1", "4", "16"})
+    int producers;
+
+    @Param({"1", "4", "16"})
+    int consumers;
+
+    @Param({"1", "64", "1024"})
+    int capacity;
+
+    private ExecutorService threads;
+    private SalesRecord[] records;
+    private long[] latencySum;
+    private long[] latencyMax;
+
+    // Secondary results: JMH reports the public fields of this state next to the throughput. It adds event counters up over the measurement iterations, so each iteration sets its own mean and worst wait divided by the number of measurement iterations, and the final result is their average over the iterations (the per-iteration lines JMH prints are scaled down the same way). Warmup iterations are not part of the result and report their figures unscaled.
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Latency {
+        public double latencyAvgNs;
+        public double latencyMaxNs;
+        private double sum;
+        private long count;
+        private long max;
+        private int share;
+
+        @Setup(Level.Iteration)
+        public void reset(IterationParams iteration, BenchmarkParams benchmark) {
+            sum = 0;
+            count = 0;
+            max = 0;
+            latencyAvgNs = 0;
+            latencyMaxNs = 0;
+            share = iteration.getType() == IterationType.MEASUREMENT ? benchmark.getMeasurement().getCount() : 1;
+        }
+
+        void add(long[] sums, long[] maxes, long records) {
+            for (int c = 0; c < sums.length; c++) {
+                sum += sums[c];
+                max = Math.max(max, maxes[c]);
+            }
+            count += records;
+            latencyAvgNs = sum / count / share;
+            latencyMaxNs = (double) max / share;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void start() {
+        threads = Executors.newFixedThreadPool(producers + consumers);
+        records = new SalesRecord[RECORDS];
+        for (int i = 0; i < RECORDS; i++) {
+            records[i] = new SalesRecord(1 + i % 28, 1 + i % 12, 1 + i % 10, 1 + i % 6, i % 1000 / 2.0);
+        }
+        latencySum = new long[consumers];
+        latencyMax = new long[consumers];
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws InterruptedException {
+        threads.shutdownNow();
+        threads.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void putTake(Latency latency) throws InterruptedException {
+        RecordBuffer buffer = RecordBuffer.create(kind, capacity);
+        AtomicInteger producing = new AtomicInteger(producers);
+        CountDownLatch done = new CountDownLatch(consumers);
+        for (int p = 0; p < producers; p++) {
+            int from = (int) ((long) RECORDS * p / producers);
+            int to = (int) ((long) RECORDS * (p + 1) / producers);
+            threads.execute(() -> {
+                try {
+                    for (int i = from; i < to; i++) {
+                        SalesRecord rec = records[i];
+                        rec.created = System.nanoTime();
+                        buffer.put(rec);
+                    }
+                    // The last producer out sends the pills, so they follow every record in the buffer
+                    if (producing.decrementAndGet() == 0) {
+                        for (int c = 0; c < consumers; c++) buffer.put(SalesRecord.POISON);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        for (int c = 0; c < consumers; c++) {
+            int consumer = c;
+            threads.execute(() -> {
+                long sum = 0;
+                long max = 0;
+                try {
+                    while (true) {
+                        SalesRecord rec = buffer.take();
+                        if (rec.isPoison) break;
+                        long waited = System.nanoTime() - rec.created;
+                        sum += waited;
+                        if (waited > max) max = waited;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    latencySum[consumer] = sum;
+                    latencyMax[consumer] = max;
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        latency.add(latencySum, latencyMax, RECORDS);
+    }
+}
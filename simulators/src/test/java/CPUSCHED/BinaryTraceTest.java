@@ -0,0 +1,69 @@
+package CPUSCHED;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Checks that a binary trace whose header does not match its length is refused with an IOException when it is opened, whatever the row count says, instead of failing later with a bad mapping or an overflowed size.
+class BinaryTraceTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsAnIntactTrace() throws IOException {
+        Path file = trace(2, new int[] {0, 1}, new int[] {10, 2}, new int[] {5, 1});
+        ProcessTable t = ProcessTable.load(file.toString());
+        assertEquals(2, t.size());
+        assertEquals(10, t.burst[0]);
+        assertEquals(1, t.priority[1]);
+    }
+
+    @Test
+    void refusesARowCountLongerThanTheFile() throws IOException {
+        Path file = trace(10, new int[] {0, 1}, new int[] {10, 2}, new int[] {5, 1});
+        assertDamaged(file);
+    }
+
+    // 12 bytes a row times 2^62 + 1 rows wraps around to 12 bytes, which this one-row file has
+    @Test
+    void refusesARowCountWhoseSizeOverflows() throws IOException {
+        Path file = trace((1L << 62) + 1, new int[] {0}, new int[] {10}, new int[] {5});
+        assertEquals(BinaryTrace.HEADER_BYTES + 12, Files.size(file));
+        assertDamaged(file);
+    }
+
+    @Test
+    void refusesANegativeRowCount() throws IOException {
+        Path file = trace(-1, new int[] {0}, new int[] {10}, new int[] {5});
+        assertDamaged(file);
+    }
+
+    private void assertDamaged(Path file) {
+        IOException e = assertThrows(IOException.class, () -> new BinaryTrace(file.toString()).close());
+        assertTrue(e.getMessage().contains("truncated or damaged"), e.getMessage());
+        assertThrows(IOException.class, () -> ProcessTable.load(file.toString()));
+    }
+
+    // Writes a header claiming 'rows' rows, followed by the given columns one after the other.
+    private Path trace(long rows, int[] arrival, int[] burst, int[] priority) throws IOException {
+        Path file = dir.resolve("trace" + rows + ".bin");
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            BinaryTrace.writeHeader(out, rows, true);
+            ByteBuffer body = ByteBuffer.allocate(12 * arrival.length).order(ByteOrder.LITTLE_ENDIAN);
+            for (int[] column : new int[][] {arrival, burst, priority}) {
+                for (int v : column) body.putInt(v);
+            }
+            body.flip();
+            out.position(BinaryTrace.HEADER_BYTES);
+            while (body.hasRemaining()) out.write(body);
+        }
+        return file;
+    }
+}
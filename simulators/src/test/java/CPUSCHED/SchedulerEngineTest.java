@@ -0,0 +1,285 @@
+package CPUSCHED;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+// Checks the event-driven SchedulerEngine against a deliberately naive reference that advances the clock one tick at a time, keeps its ready queue in a plain list and picks the next process with a linear scan. The two share only the scheduling rules: what a policy runs next, when it preempts, how long a slice is, and the order of events at one instant (completions and slice ends first, then that instant's arrivals, then the expired processes, then idle cores taking work, the most recently freed first, and only then preemption, always of the worst running process). Every process's start and completion time has to match, so waiting, turnaround and response time match as well. The traces are small and fixed: a hand-made one with ties and an idle gap, and seeded random ones both overloaded and with idle time between arrivals.
+class SchedulerEngineTest {
+    private static final String[] POLICIES = {"FIFO", "SJF", "SRTF", "RR", "PRIORITY", "PRIORITY_P", "MLFQ"};
+    private static final int QUANTUM = 3;
+    private static final int LEVELS = 3;
+
+    static Stream<Arguments> policiesAndCores() {
+        List<Arguments> out = new ArrayList<>();
+        for (String policy : POLICIES) {
+            for (int cores : new int[] {1, 2, 4}) out.add(Arguments.of(policy, cores));
+        }
+        return out.stream();
+    }
+
+    @ParameterizedTest(name = "{0} on {1} cores")
+    @MethodSource("policiesAndCores")
+    void matchesTickByTickReference(String policy, int cores) throws IOException {
+        for (Trace trace : traces()) {
+            ProcessTable table = trace.table();
+            RunStats stats = SchedulerEngine.run(ArrivalFeed.of(table), new SchedulingPolicy[] {SchedulingPolicy.create(policy, QUANTUM, LEVELS)}, cores, false, Long.MAX_VALUE);
+            Reference ref = new Reference(trace, policy, cores);
+            ref.run();
+            for (int i = 0; i < trace.size(); i++) {
+                String where = trace.name + ", process " + (i + 1);
+                assertEquals(ref.start[i], table.start[i], () -> where + ": start");
+                assertEquals(ref.completion[i], table.completion[i], () -> where + ": completion");
+                assertEquals(ref.completion[i] - trace.arrival[i] - trace.burst[i], table.completion[i] - table.arrival[i] - table.burst[i], () -> where + ": waiting");
+                assertEquals(ref.start[i] - trace.arrival[i], table.start[i] - table.arrival[i], () -> where + ": response");
+            }
+            assertEquals(trace.size(), stats.processes, trace.name);
+            assertEquals(Arrays.stream(ref.completion).max().getAsLong(), stats.elapsed, trace.name);
+        }
+    }
+
+    // Per-core queues place arrivals by hashing, which the reference does not model, so these runs are checked for conservation instead: every process finishes, no process starts before it arrives or finishes before its burst is done, the cores are busy for exactly the total burst, and a non-preemptive policy runs each process in one piece.
+    @Test
+    void perCoreDispatchConservesWork() throws IOException {
+        for (String policy : POLICIES) {
+            for (int cores : new int[] {2, 4}) {
+                for (boolean steal : new boolean[] {false, true}) {
+                    for (Trace trace : traces()) {
+                        ProcessTable table = trace.table();
+                        SchedulingPolicy[] queues = new SchedulingPolicy[cores];
+                        for (int c = 0; c < cores; c++) queues[c] = SchedulingPolicy.create(policy, QUANTUM, LEVELS);
+                        RunStats stats = SchedulerEngine.run(ArrivalFeed.of(table), queues, cores, steal, Long.MAX_VALUE);
+                        String run = policy + " percore " + cores + (steal ? " steal " : " ") + trace.name;
+                        long busy = 0;
+                        long burst = 0;
+                        for (int i = 0; i < trace.size(); i++) {
+                            assertTrue(table.start[i] >= table.arrival[i], run);
+                            assertTrue(table.completion[i] >= table.start[i] + table.burst[i], run);
+                            if (!queues[0].preemptive() && !policy.equals("RR")) assertEquals(table.start[i] + table.burst[i], table.completion[i], run);
+                            burst += table.burst[i];
+                        }
+                        for (long b : stats.coreBusy) busy += b;
+                        assertEquals(trace.size(), stats.processes, run);
+                        assertEquals(burst, busy, run);
+                    }
+                }
+            }
+        }
+    }
+
+    // An arrival that finds a core idle takes that core; it must not push a process off another core, which would then move to the idle one.
+    @Test
+    void arrivalTakesAnIdleCoreBeforePreempting() throws IOException {
+        for (String policy : new String[] {"SRTF", "PRIORITY_P"}) {
+            Trace trace = new Trace("long then short", new int[] {0, 1}, new int[] {10, 2}, new int[] {5, 1});
+            ProcessTable table = trace.table();
+            RunStats stats = SchedulerEngine.run(ArrivalFeed.of(table), new SchedulingPolicy[] {SchedulingPolicy.create(policy, QUANTUM, LEVELS)}, 2, false, Long.MAX_VALUE);
+            assertEquals(0, stats.migrations, policy);
+            assertArrayEquals(new long[] {10, 2}, stats.coreBusy, policy);
+            assertEquals(10, table.completion[0], policy);
+            assertEquals(3, table.completion[1], policy);
+        }
+    }
+
+    // Level i gets base * 2^i until that no longer fits in a long; from there on, and at the bottom level, a process runs to completion. The quanta must never wrap to a negative or smaller value.
+    @Test
+    void mlfqQuantaDoubleUntilTheySaturate() {
+        for (int base : new int[] {1, 3, 1 << 30, Integer.MAX_VALUE}) {
+            int levels = 100;
+            ProcessTable table = new ProcessTable();
+            table.add(1, 0, 1, 0);
+            SchedulingPolicy mlfq = SchedulingPolicy.create("MLFQ", base, levels);
+            mlfq.attach(table);
+            long previous = 0;
+            for (int level = 0; level < levels; level++) {
+                table.level[0] = level;
+                long slice = mlfq.timeSlice(0);
+                String where = "base " + base + ", level " + level;
+                boolean fits = level < Long.numberOfLeadingZeros(base); // base * 2^level < 2^63
+                assertEquals(fits && level < levels - 1 ? (long) base << level : Long.MAX_VALUE, slice, where);
+                assertTrue(slice >= previous, where);
+                previous = slice;
+            }
+        }
+    }
+
+    private static List<Trace> traces() {
+        List<Trace> traces = new ArrayList<>();
+        traces.add(new Trace("hand-made",
+                new int[] {0, 0, 0, 2, 2, 5, 30, 30, 31},
+                new int[] {8, 3, 5, 1, 6, 2, 4, 4, 1},
+                new int[] {3, 1, 2, 0, 1, 3, 2, 0, 1}));
+        for (int seed = 1; seed <= 12; seed++) {
+            boolean overloaded = seed % 2 == 1;
+            Random r = new Random(seed);
+            int n = 40;
+            int[] arrival = new int[n];
+            int[] burst = new int[n];
+            int[] priority = new int[n];
+            int clock = 0;
+            for (int i = 0; i < n; i++) {
+                clock += r.nextInt(overloaded ? 4 : 20);
+                arrival[i] = clock;
+                burst[i] = 1 + r.nextInt(overloaded ? 12 : 8);
+                priority[i] = r.nextInt(5);
+            }
+            traces.add(new Trace((overloaded ? "overloaded" : "idle-gaps") + " seed " + seed, arrival, burst, priority));
+        }
+        return traces;
+    }
+
+    private static final class Trace {
+        final String name;
+        final int[] arrival;
+        final int[] burst;
+        final int[] priority;
+
+        Trace(String name, int[] arrival, int[] burst, int[] priority) {
+            this.name = name;
+            this.arrival = arrival;
+            this.burst = burst;
+            this.priority = priority;
+        }
+
+        int size() {
+            return arrival.length;
+        }
+
+        ProcessTable table() {
+            ProcessTable t = new ProcessTable();
+            for (int i = 0; i < size(); i++) t.add(i + 1, arrival[i], burst[i], priority[i]);
+            return t;
+        }
+    }
+
+    // The tick-by-tick model. Rows are in arrival order and process ids are row + 1, so ties "by arrival, then id" are ties by row.
+    private static final class Reference {
+        private static final long FOREVER = Long.MAX_VALUE;
+
+        private final Trace trace;
+        private final String policy;
+        private final int cores;
+        final long[] start;
+        final long[] completion;
+        private final int[] remaining;
+        private final int[] level;
+        private final List<Integer> ready = new ArrayList<>(); // in the order the processes were queued
+        private final int[] running;
+        private final long[] sliceLeft;
+        private final Deque<Integer> idle = new ArrayDeque<>();
+
+        Reference(Trace trace, String policy, int cores) {
+            this.trace = trace;
+            this.policy = policy;
+            this.cores = cores;
+            int n = trace.size();
+            start = new long[n];
+            completion = new long[n];
+            remaining = trace.burst.clone();
+            level = new int[n];
+            Arrays.fill(start, -1);
+            running = new int[cores];
+            sliceLeft = new long[cores];
+            Arrays.fill(running, -1);
+            for (int c = cores - 1; c >= 0; c--) idle.push(c);
+        }
+
+        void run() {
+            int n = trace.size();
+            int next = 0;
+            int done = 0;
+            for (long now = 0; done < n; now++) {
+                List<Integer> expired = new ArrayList<>();
+                for (int c = 0; c < cores; c++) {
+                    int r = running[c];
+                    if (r < 0) continue;
+                    if (remaining[r] == 0) {
+                        completion[r] = now;
+                        done++;
+                    } else if (sliceLeft[c] == 0) {
+                        expired.add(r);
+                    } else {
+                        continue;
+                    }
+                    running[c] = -1;
+                    idle.push(c);
+                }
+                boolean arrived = false;
+                while (next < n && trace.arrival[next] <= now) {
+                    level[next] = 0;
+                    ready.add(next++);
+                    arrived = true;
+                }
+                for (int r : expired) {
+                    if (policy.equals("MLFQ") && level[r] < LEVELS - 1) level[r]++;
+                    ready.add(r);
+                }
+                while (!idle.isEmpty() && !ready.isEmpty()) dispatch(idle.pop(), select(), now);
+                while (arrived && preemptive() && !ready.isEmpty()) {
+                    int victim = -1;
+                    for (int c = 0; c < cores; c++) {
+                        if (running[c] >= 0 && (victim < 0 || key(running[c]) > key(running[victim]))) victim = c;
+                    }
+                    if (victim < 0 || !shouldPreempt(running[victim])) break;
+                    ready.add(running[victim]);
+                    dispatch(victim, select(), now);
+                }
+                for (int c = 0; c < cores; c++) {
+                    if (running[c] < 0) continue;
+                    remaining[running[c]]--;
+                    if (sliceLeft[c] != FOREVER) sliceLeft[c]--;
+                }
+            }
+        }
+
+        private void dispatch(int c, int r, long now) {
+            if (start[r] < 0) start[r] = now;
+            running[c] = r;
+            sliceLeft[c] = slice(r);
+        }
+
+        private boolean preemptive() {
+            return policy.equals("SRTF") || policy.equals("PRIORITY_P") || policy.equals("MLFQ");
+        }
+
+        private long slice(int r) {
+            if (policy.equals("RR")) return QUANTUM;
+            if (policy.equals("MLFQ")) return level[r] == LEVELS - 1 ? FOREVER : (long) QUANTUM << level[r];
+            return FOREVER;
+        }
+
+        // The value a heap policy orders by; queue policies order by position instead.
+        private int key(int r) {
+            switch (policy) {
+                case "SJF": return trace.burst[r];
+                case "SRTF": return remaining[r];
+                case "PRIORITY":
+                case "PRIORITY_P": return trace.priority[r];
+                case "MLFQ": return level[r];
+                default: return 0;
+            }
+        }
+
+        private int select() {
+            int best = 0;
+            for (int i = 1; i < ready.size(); i++) {
+                int a = ready.get(i);
+                int b = ready.get(best);
+                boolean fifoWithinKey = policy.equals("MLFQ") || policy.equals("FIFO") || policy.equals("RR");
+                if (key(a) < key(b) || (!fifoWithinKey && key(a) == key(b) && a < b)) best = i;
+            }
+            return ready.remove(best);
+        }
+
+        private boolean shouldPreempt(int r) {
+            int min = Integer.MAX_VALUE;
+            for (int q : ready) min = Math.min(min, key(q));
+            return min < key(r);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package PRODUCER_CONSUMER;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+// Stresses the sequence lock of SalesTally: several consumers add records to their stripes as fast as they can while the test thread takes snapshots back to back. Every record is worth exactly 1.0, so a snapshot that copied a stripe halfway through a record shows up as a count that differs from the total, or as a rollup by store, month or register that differs from either. The count of successive snapshots must never go backwards, and the latency histogram, kept under the same lock, must hold one value per record. The store counts go from a cell table that stays small to one that keeps growing while it is copied.
+class SalesAggregatorTest {
+    private static final int WRITERS = 4;
+    private static final int RECORDS = 250_000;  // per writer
+
+    @ParameterizedTest(name = "{0} stores")
+    @ValueSource(ints = {10, 1_000, 100_000})
+    void snapshotsStayConsistentWhileConsumersWrite(int stores) throws InterruptedException {
+        SalesAggregator sales = new SalesAggregator(0, WRITERS);
+        Thread[] writers = new Thread[WRITERS];
+        for (int w = 0; w < WRITERS; w++) {
+            SalesTally stripe = sales.stripe(w);
+            int writer = w;
+            SalesRecord[] records = new SalesRecord[RECORDS];
+            for (int i = 0; i < RECORDS; i++) {
+                int store = (int) (((long) i * 7919 + writer) % stores) + 1;
+                records[i] = new SalesRecord(1 + i % 28, 1 + i % 12, store, 1 + i % 7, 1.0);
+            }
+            writers[w] = new Thread(() -> {
+                for (int i = 0; i < RECORDS; i++) {
+                    stripe.add(records[i], i);
+                    if ((i & 15) == 0) stripe.occupancy(i & 1023);
+                }
+            });
+        }
+        for (Thread t : writers) t.start();
+
+        long last = 0;
+        int snapshots = 0;
+        boolean running = true;
+        while (running) {
+            running = false;
+            for (Thread t : writers) running |= t.isAlive();
+            SalesSnapshot s = sales.snapshot();
+            assertConsistent(s);
+            assertTrue(s.count >= last, () -> "count went back from " + s.count);
+            last = s.count;
+            snapshots++;
+        }
+        for (Thread t : writers) t.join();
+
+        SalesSnapshot end = sales.snapshot();
+        assertConsistent(end);
+        assertEquals((long) WRITERS * RECORDS, end.count);
+        assertEquals(Math.min(stores, (long) WRITERS * RECORDS), end.stores().length);
+        assertTrue(snapshots > 1, "no snapshot was taken while the consumers were writing");
+    }
+
+    private static void assertConsistent(SalesSnapshot s) {
+        assertEquals(s.count, s.total, () -> "total of a snapshot with " + s.count + " records");
+        assertEquals(s.count, s.latency.count(), "latency values");
+        double byStore = 0;
+        for (int store : s.stores()) byStore += s.storeSales(store);
+        assertEquals(s.total, byStore, "store rollup");
+        double byMonth = 0;
+        for (double m : s.month) byMonth += m;
+        assertEquals(s.total, byMonth, "month rollup");
+        double byRegister = 0;
+        for (double r : s.register) byRegister += r;
+        assertEquals(s.total, byRegister, "register rollup");
+    }
+}
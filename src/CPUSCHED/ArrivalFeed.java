@@ -0,0 +1,70 @@
+package CPUSCHED;
+import java.io.IOException;
+
+// An ArrivalFeed gives the simulator its processes in arrival order as rows of a ProcessTable. The in-memory feed walks a table that already holds the whole sorted trace. The streaming feed copies each row from a TraceSource into a small table when the process arrives and releases the row once the process completes, so the table only grows with the number of processes currently in the system.
+abstract class ArrivalFeed {
+    final ProcessTable table;
+
+    ArrivalFeed(ProcessTable table) {
+        this.table = table;
+    }
+
+    abstract boolean hasNext();
+
+    // Arrival time of the next process; only valid while hasNext() is true.
+    abstract int nextArrival();
+
+    // Admits the next process and returns its row in the table.
+    abstract int admit() throws IOException;
+
+    // Called once a process has completed and its row is no longer needed.
+    void retire(int row) {}
+
+    void close() throws IOException {}
+
+    static ArrivalFeed of(ProcessTable loaded) {
+        return new InMemory(loaded);
+    }
+
+    static ArrivalFeed stream(TraceSource source) throws IOException {
+        return new Streaming(source);
+    }
+
+    private static final class InMemory extends ArrivalFeed {
+        private final int n;
+        private int next;
+
+        InMemory(ProcessTable table) {
+            super(table);
+            n = table.size();
+        }
+
+        @Override boolean hasNext() { return next < n; }
+        @Override int nextArrival() { return table.arrival[next]; }
+        @Override int admit() { return next++; }
+    }
+
+    private static final class Streaming extends ArrivalFeed {
+        private final TraceSource source;
+        private boolean pending;
+
+        Streaming(TraceSource source) throws IOException {
+            super(new ProcessTable());
+            this.source = source;
+            pending = source.next();
+        }
+
+        @Override boolean hasNext() { return pending; }
+        @Override int nextArrival() { return source.arrival(); }
+
+        @Override
+        int admit() throws IOException {
+            int row = table.add(source.id(), source.arrival(), source.burst(), source.priority());
+            pending = source.next();
+            return row;
+        }
+
+        @Override void retire(int row) { table.release(row); }
+        @Override void close() throws IOException { source.close(); }
+    }
+}
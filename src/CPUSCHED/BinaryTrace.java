@@ -0,0 +1,156 @@
+package CPUSCHED;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// This class reads the binary columnar trace format that GenerateData writes with --format binary. A file is a 64-byte header (the magic "CPUT", a version, the row count, a flags word whose low bit says the rows are in arrival order, and the column count) followed by the arrival, burst and priority columns, each one little-endian 32-bit int per row in row order; ids are not stored, row i is process i + 1, as in a text trace. A row takes 12 bytes instead of about 17 as text, and nothing has to be parsed: the reader maps each column and hands out values straight from the mapping, so streaming a trace never copies it onto the heap, and load() fills the ProcessTable columns with bulk copies from the mapped pages. Columns larger than one mapping window are walked in consecutive windows, as TraceReader does for text.
+class BinaryTrace implements TraceSource {
+    static final int MAGIC = 0x54555043; // "CPUT" as a little-endian int
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 64;
+    static final int COLUMNS = 3;        // arrival, burst, priority
+    static final int SORTED = 1;         // flag: arrivals never decrease
+    private static final long WINDOW = 1L << 28; // 256 MB per mapping, a multiple of 4 so no int straddles two windows
+
+    private final FileChannel channel;
+    private final long rows;
+    private final boolean sorted;
+    private final Column arrivals;
+    private final Column bursts;
+    private final Column priorities;
+
+    private long row;
+    private int arrival;
+    private int burst;
+    private int priority;
+
+    BinaryTrace(String fileName) throws IOException {
+        channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) >= 0) {}
+            if (header.position() < HEADER_BYTES || header.getInt(0) != MAGIC) throw new IOException(fileName + " is not a binary trace");
+            if (header.getInt(4) != VERSION) throw new IOException(fileName + ": unsupported binary trace version " + header.getInt(4));
+            rows = header.getLong(8);
+            sorted = (header.getInt(16) & SORTED) != 0;
+            // Divided rather than multiplied, so a damaged row count cannot overflow into a size that looks big enough
+            if (rows < 0 || header.getInt(20) != COLUMNS || rows > (channel.size() - HEADER_BYTES) / (COLUMNS * 4L)) {
+                throw new IOException(fileName + ": binary trace is truncated or damaged");
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        arrivals = new Column(0);
+        bursts = new Column(1);
+        priorities = new Column(2);
+    }
+
+    // True when the file starts with the binary trace magic; anything else is read as a text trace.
+    static boolean isBinary(String fileName) throws IOException {
+        Path path = Paths.get(fileName);
+        if (Files.size(path) < HEADER_BYTES) return false;
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            while (magic.hasRemaining() && ch.read(magic) >= 0) {}
+            return magic.getInt(0) == MAGIC;
+        }
+    }
+
+    long rows() { return rows; }
+
+    boolean sorted() { return sorted; }
+
+    @Override
+    public boolean next() throws IOException {
+        if (row == rows) return false;
+        row++;
+        arrival = arrivals.next();
+        burst = bursts.next();
+        priority = priorities.next();
+        return true;
+    }
+
+    @Override
+    public int id() { return (int) row; }
+
+    @Override
+    public int arrival() { return arrival; }
+
+    @Override
+    public int burst() { return burst; }
+
+    @Override
+    public int priority() { return priority; }
+
+    // Copies every row's arrival, burst and priority into the given arrays, which must hold rows() values; a mapped window at a time, so the copies run at memory speed.
+    void readColumns(int[] arrival, int[] burst, int[] priority) throws IOException {
+        copy(0, arrival);
+        copy(1, burst);
+        copy(2, priority);
+    }
+
+    private void copy(int column, int[] into) throws IOException {
+        long base = columnOffset(column, rows);
+        long bytes = 4 * rows;
+        for (long done = 0; done < bytes; done += WINDOW) {
+            long len = Math.min(WINDOW, bytes - done);
+            channel.map(FileChannel.MapMode.READ_ONLY, base + done, len).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(into, (int) (done / 4), (int) (len / 4));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    static long columnOffset(int column, long rows) {
+        return HEADER_BYTES + column * 4 * rows;
+    }
+
+    // Writes the header of a trace of 'rows' rows; the columns go after it with writeColumn().
+    static void writeHeader(FileChannel out, long rows, boolean sorted) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(0, MAGIC).putInt(4, VERSION).putLong(8, rows).putInt(16, sorted ? SORTED : 0).putInt(20, COLUMNS);
+        writeFully(out, header, 0);
+    }
+
+    // Writes n values of one column starting at row 'first'. The writes are positional, so threads writing different slices of a file can share the channel.
+    static void writeColumn(FileChannel out, long rows, int column, long first, int[] values, int n) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(4 * n).order(ByteOrder.LITTLE_ENDIAN);
+        bytes.asIntBuffer().put(values, 0, n);
+        writeFully(out, bytes, columnOffset(column, rows) + 4 * first);
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer bytes, long position) throws IOException {
+        while (bytes.hasRemaining()) position += out.write(bytes, position);
+    }
+
+    // A cursor over one column that maps it a window at a time.
+    private final class Column {
+        private final long base;
+        private final long end;
+        private long windowStart;
+        private IntBuffer window = IntBuffer.allocate(0);
+
+        Column(int column) {
+            base = columnOffset(column, rows);
+            end = base + 4 * rows;
+            windowStart = base;
+        }
+
+        int next() throws IOException {
+            if (!window.hasRemaining()) {
+                windowStart += 4L * window.capacity();
+                window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(WINDOW, end - windowStart)).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            }
+            return window.get();
+        }
+    }
+}
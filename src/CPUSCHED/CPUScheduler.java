@@ -1,139 +1,166 @@
 package CPUSCHED;
 import java.io.*;
 import java.util.*;
+import STATS.PeakMemory;
 
 public class CPUScheduler {
+    private static final long DEFAULT_LIMIT = 500; // spec: aim for 500 processes
+
+    private static final int DEFAULT_QUANTUM = 4;
+    private static final int DEFAULT_LEVELS = 3;
+    private static final String ALGORITHMS = "FIFO|SJF|SRTF|RR|PRIORITY|PRIORITY_P|MLFQ";
+
     public static void main(String[] args) {
         if (args.length < 2) {
-            System.out.println("Usage: java CPUScheduler <inputfile.txt> <FIFO|SJF>");
+            System.out.println("Usage: java CPUScheduler <trace.txt|trace.bin> <" + ALGORITHMS + "> [--quantum N] [--levels N] [--cores N] [--dispatch global|percore] [--steal] [--stream] [--limit N|all] [--metrics FILE]");
             return;
         }
 
         String fileName = args[0];
         String algo = args[1].toUpperCase();
-        boolean isFIFO = algo.equals("FIFO");
 
-        if (!isFIFO && !algo.equals("SJF")) {
-            System.out.println("Invalid algorithm. Use FIFO or SJF.");
-            return;
+        // The trace may be text or the binary columnar format GenerateData writes with --format binary; the file itself says which. Optional flags: --stream reads the trace through a memory-mapped reader instead of loading it into a table, --limit sets how many processes to complete (default 500, "all" for the whole trace), --quantum sets the RR quantum and the top MLFQ quantum, --levels sets the number of MLFQ queues, --cores, --dispatch and --steal configure a multi-core run, and --metrics appends the run's statistics, with the waiting, turnaround and response time percentiles, to a file as one line of JSON.
+        boolean stream = false;
+        long limit = DEFAULT_LIMIT;
+        int quantum = DEFAULT_QUANTUM;
+        int levels = DEFAULT_LEVELS;
+        int cores = 1;
+        boolean perCore = false;
+        boolean steal = false;
+        String metricsFile = null;
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].equals("--stream")) {
+                stream = true;
+            } else if (args[i].equals("--limit") && i + 1 < args.length) {
+                String v = args[++i];
+                limit = v.equalsIgnoreCase("all") ? Long.MAX_VALUE : parsePositive(v);
+                if (limit <= 0) {
+                    System.out.println("Invalid limit. Use a positive number or 'all'.");
+                    return;
+                }
+            } else if (args[i].equals("--quantum") && i + 1 < args.length) {
+                quantum = (int) Math.min(Integer.MAX_VALUE, parsePositive(args[++i]));
+                if (quantum <= 0) {
+                    System.out.println("Invalid quantum. Use a positive number.");
+                    return;
+                }
+            } else if (args[i].equals("--levels") && i + 1 < args.length) {
+                levels = (int) Math.min(Integer.MAX_VALUE, parsePositive(args[++i]));
+                if (levels <= 0) {
+                    System.out.println("Invalid number of levels. Use a positive number.");
+                    return;
+                }
+            } else if (args[i].equals("--cores") && i + 1 < args.length) {
+                cores = (int) Math.min(Integer.MAX_VALUE, parsePositive(args[++i]));
+                if (cores <= 0) {
+                    System.out.println("Invalid number of cores. Use a positive number.");
+                    return;
+                }
+            } else if (args[i].equals("--dispatch") && i + 1 < args.length) {
+                String d = args[++i].toLowerCase();
+                if (!d.equals("global") && !d.equals("percore")) {
+                    System.out.println("Invalid dispatch mode. Use global or percore.");
+                    return;
+                }
+                perCore = d.equals("percore");
+            } else if (args[i].equals("--steal")) {
+                steal = true;
+            } else if (args[i].equals("--metrics") && i + 1 < args.length) {
+                metricsFile = args[++i];
+            } else {
+                System.out.println("Unknown option: " + args[i]);
+                return;
+            }
         }
 
-        List<Process> processes = readProcesses(fileName);
-        if (processes.isEmpty()) {
-            System.out.println("No processes found in file.");
+        // One policy instance is the global queue; per-core dispatch gets an instance per core
+        SchedulingPolicy[] queues = new SchedulingPolicy[perCore ? cores : 1];
+        for (int q = 0; q < queues.length; q++) {
+            queues[q] = SchedulingPolicy.create(algo, quantum, levels);
+        }
+        if (queues[0] == null) {
+            System.out.println("Invalid algorithm. Use " + ALGORITHMS.replace("|", ", ") + ".");
+            return;
+        }
+        if (steal && !perCore) {
+            System.out.println("--steal needs --dispatch percore.");
             return;
         }
 
-        String outputFile = "output_" + (isFIFO ? "FIFO" : "SJF") + ".txt";
+        long started = System.nanoTime();
+        ArrivalFeed feed;
+        if (stream) {
+            feed = openStream(fileName);
+        } else {
+            ProcessTable processes = readProcesses(fileName);
+            if (processes.size() == 0) {
+                System.out.println("No processes found in file.");
+                return;
+            }
+            feed = ArrivalFeed.of(processes);
+        }
+
+        String outputFile = "output_" + queues[0].name() + (cores > 1 ? "_" + cores + "cores" : "") + ".txt";
+        PrintStream console = System.out;
+        RunStats stats = null;
 
         try (PrintStream out = new PrintStream(new FileOutputStream(outputFile))) {
             System.setOut(out);
-            simulate(processes, isFIFO);
+            stats = SchedulerEngine.run(feed, queues, cores, steal, limit);
+            stats.print(System.out);
         } catch (Exception e) {
             System.err.println("Error writing " + outputFile);
+        } finally {
+            System.setOut(console);
         }
 
         System.out.println("Results saved to: " + outputFile);   // printed to console
+        if (metricsFile != null && stats != null) {
+            try (PrintWriter pw = new PrintWriter(new FileWriter(metricsFile, true))) {
+                pw.println(stats.toJson(fileName));
+                System.out.println("Metrics appended to: " + metricsFile);
+            } catch (IOException e) {
+                System.err.println("Error writing " + metricsFile);
+            }
+        }
+        System.out.println("Run time: " + (System.nanoTime() - started) / 1_000_000 + " ms, peak memory: " + PeakMemory.mb() + " MB");
     }
 
-    private static List<Process> readProcesses(String fileName) {
-    List<Process> list = new ArrayList<>();
-    try (BufferedReader br = new BufferedReader(new FileReader(fileName))) {
-        String line;
-        int id = 1;
-        boolean first = true;
-        while ((line = br.readLine()) != null) {
-            line = line.trim();
-            if (line.isEmpty() || first) {  // skip header
-                first = false;
-                continue;
+    // This method opens the trace for streaming. Traces that are already in arrival order are read straight from the memory-mapped file (a binary trace says so in its header, a text trace is scanned once to find out), while anything else is first passed through the external sort so the simulator still sees rows in arrival order without holding the whole trace on the heap.
+    private static ArrivalFeed openStream(String fileName) {
+        try {
+            if (BinaryTrace.isBinary(fileName)) {
+                BinaryTrace trace = new BinaryTrace(fileName);
+                return ArrivalFeed.stream(trace.sorted() ? trace : ExternalSorter.sort(trace));
             }
-            String[] parts = line.split("\\s+");
-            if (parts.length >= 2) {
-                try {
-                    int arrival = Integer.parseInt(parts[0]);
-                    int burst = Integer.parseInt(parts[1]);
-                    list.add(new Process(id++, arrival, burst));
-                } catch (NumberFormatException ignored) {}
+            if (TraceReader.isArrivalOrdered(fileName)) {
+                return ArrivalFeed.stream(new TraceReader(fileName));
             }
+            return ArrivalFeed.stream(ExternalSorter.sort(new TraceReader(fileName)));
+        } catch (Exception e) {
+            System.err.println("Error reading file: " + e.getMessage());
+            System.exit(1);
+            return null;
         }
-    } catch (Exception e) {
-        System.err.println("Error reading file: " + e.getMessage());
-        System.exit(1);
-    }
-    list.sort(Comparator.comparingInt(p -> p.arrivalTime));
-    return list;
-}
-
-    private static void simulate(List<Process> processes, boolean isFIFO) {
-    int n = processes.size();
-    int processesToComplete = Math.min(500, n);  // Respect spec: aim for 500, but don't exceed file size
-
-    Queue<Process> readyQueue = isFIFO ?
-            new LinkedList<>() :
-            new PriorityQueue<>((p1, p2) -> {
-                int cmp = Integer.compare(p1.burstTime, p2.burstTime);
-                return cmp != 0 ? cmp : Integer.compare(p1.arrivalTime, p2.arrivalTime);
-            });
-
-    int currentTime = 0;
-    int nextIndex = 0;
-    int completed = 0;
-    double totalWaiting = 0, totalTurnaround = 0, totalResponse = 0;
-    long totalBurst = 0;
-
-    // Only sum bursts for the first 500 (or all if <500)
-    for (int i = 0; i < processesToComplete; i++) {
-        totalBurst += processes.get(i).burstTime;
     }
 
-    while (completed < processesToComplete) {
-        // Add all arrived processes up to current time
-        while (nextIndex < n && processes.get(nextIndex).arrivalTime <= currentTime) {
-            readyQueue.add(processes.get(nextIndex++));
-        }
-
-        if (readyQueue.isEmpty()) {
-            if (nextIndex >= n) break; // No more processes
-            currentTime = processes.get(nextIndex).arrivalTime; // Jump forward
-            continue;
+    private static ProcessTable readProcesses(String fileName) {
+        try {
+            return ProcessTable.load(fileName); // sorted by arrival, header skipped
+        } catch (Exception e) {
+            System.err.println("Error reading file: " + e.getMessage());
+            System.exit(1);
+            return null;
         }
+    }
 
-        // Select next process (FIFO or shortest burst)
-        Process p = isFIFO ? readyQueue.poll() : ((PriorityQueue<Process>) readyQueue).poll();
-        // If the process hasn't started yet, set its start time
-        if (p.startTime == -1) {
-            p.startTime = currentTime;
+    // Parses a positive number, returning -1 when the text is not one.
+    private static long parsePositive(String v) {
+        try {
+            long n = Long.parseLong(v);
+            return n > 0 ? n : -1;
+        } catch (NumberFormatException e) {
+            return -1;
         }
-        // Simulate running the process to completion
-        currentTime += p.burstTime;
-        p.completionTime = currentTime;
-        completed++;
-
-        // Calculate metrics for this process
-        int turnaround = p.completionTime - p.arrivalTime;
-        int waiting = turnaround - p.burstTime;
-        int response = p.startTime - p.arrivalTime;
-
-        // Accumulate totals for averages
-        totalTurnaround += turnaround;
-        totalWaiting += waiting;
-        totalResponse += response;
     }
-
-    double elapsed = currentTime;
-    double throughput = (double) totalBurst / processesToComplete;  // spec formula
-    double cpuUtil = (totalBurst / elapsed) * 100;
-
-
-    // Print statistics
-    System.out.println("Statistics for the Run");
-    System.out.println("Number of processes: " + processesToComplete);
-    System.out.println("Total elapsed time (for the scheduler): " + String.format("%.0f", elapsed));
-    System.out.println("Throughput (Number of processes executed in one unit of CPU burst time): " + String.format("%.2f", throughput));
-    System.out.println("CPU utilization: " + String.format("%.2f", cpuUtil) + "%");
-    System.out.println("Average waiting time (in CPU burst times): " + String.format("%.2f", totalWaiting / processesToComplete));
-    System.out.println("Average turnaround time (in CPU burst times): " + String.format("%.2f", totalTurnaround / processesToComplete));
-    System.out.println("Average response time (in CPU burst times): " + String.format("%.2f", totalResponse / processesToComplete));
 }
-}
\ No newline at end of file
@@ -0,0 +1,55 @@
+package CPUSCHED;
+import java.util.SplittableRandom;
+
+// A Distribution draws the non-negative integers GenerateData turns into inter-arrival gaps and CPU bursts. Each one is built for a target mean, so switching shape keeps the load of the trace about the same and only changes how it is spread out. Every draw uses only the SplittableRandom it is given, so a chunk of a trace generated from its own seeded stream comes out the same on any thread and in any order.
+interface Distribution {
+    String[] NAMES = {"uniform", "poisson", "bursty", "pareto", "lognormal"};
+
+    double PARETO_SHAPE = 1.5;   // alpha: finite mean, infinite variance
+    double LOGNORMAL_SIGMA = 1.0;
+    double BURST_SHARE = 0.9;    // bursty: share of values drawn from the short mode
+    int CAP = 1 << 30;           // largest single value, so heavy tails cannot overflow an int column
+
+    int sample(SplittableRandom r);
+
+    // This method creates the distribution for a name given on the command line, or returns null when the name is not known. uniform is flat over 0..2*mean (the shape the original generator used), poisson is memoryless (geometric, so gaps make a Poisson arrival process and bursts are the discrete exponential), bursty mixes a short mode a tenth of the mean with a rare long one that makes up the rest (clustered arrivals, or many short jobs and a few long ones), pareto is a power-law tail with shape PARETO_SHAPE, and lognormal has sigma LOGNORMAL_SIGMA.
+    static Distribution create(String name, double mean) {
+        switch (name) {
+            case "uniform": {
+                int bound = (int) Math.min(CAP, Math.round(2 * mean) + 1);
+                return r -> r.nextInt(bound);
+            }
+            case "poisson":
+                return geometric(mean);
+            case "bursty": {
+                Distribution shortMode = geometric(mean / 10);
+                Distribution longMode = geometric((mean - BURST_SHARE * mean / 10) / (1 - BURST_SHARE));
+                return r -> r.nextDouble() < BURST_SHARE ? shortMode.sample(r) : longMode.sample(r);
+            }
+            case "pareto": {
+                // Flooring loses half a unit on average, so the continuous scale is set for mean + 0.5
+                double scale = (mean + 0.5) * (PARETO_SHAPE - 1) / PARETO_SHAPE;
+                double exponent = -1 / PARETO_SHAPE;
+                return r -> (int) Math.min(CAP, scale * Math.pow(1 - r.nextDouble(), exponent));
+            }
+            case "lognormal": {
+                double mu = Math.log(mean + 0.5) - LOGNORMAL_SIGMA * LOGNORMAL_SIGMA / 2;
+                return r -> (int) Math.min(CAP, Math.exp(mu + LOGNORMAL_SIGMA * gaussian(r)));
+            }
+            default:
+                return null;
+        }
+    }
+
+    // Geometric on 0, 1, 2, ... with the given mean: the number of failures before the first success at p = 1 / (mean + 1).
+    static Distribution geometric(double mean) {
+        if (mean <= 0) return r -> 0;
+        double logQ = Math.log(mean / (mean + 1));
+        return r -> (int) Math.min(CAP, Math.log(1 - r.nextDouble()) / logQ);
+    }
+
+    // A standard normal draw by the Box-Muller transform; SplittableRandom has no nextGaussian before JDK 17.
+    static double gaussian(SplittableRandom r) {
+        return Math.sqrt(-2 * Math.log(1 - r.nextDouble())) * Math.cos(2 * Math.PI * r.nextDouble());
+    }
+}
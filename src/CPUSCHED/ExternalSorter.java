@@ -0,0 +1,203 @@
+package CPUSCHED;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// This class puts a trace that is not in arrival order into arrival order while keeping memory bounded. It reads the input in runs of RUN_ROWS rows, sorts each run in memory by (arrival, id), and writes it to a temporary binary file of 16-byte rows. The runs are then merged lazily as the simulator pulls rows, so at most one run plus one buffered row per run file is held in memory. Sorting by id as the tie-breaker keeps the order stable, which is the same guarantee List.sort gave the original reader. A trace that fits in a single run never touches the disk.
+class ExternalSorter {
+    static final int RUN_ROWS = 1 << 22;
+
+    private ExternalSorter() {}
+
+    public static TraceSource sort(TraceSource in) throws IOException {
+        return sort(in, RUN_ROWS);
+    }
+
+    static TraceSource sort(TraceSource in, int runRows) throws IOException {
+        int cap = Math.min(runRows, 1 << 16);
+        int[] ids = new int[cap];
+        int[] arrivals = new int[cap];
+        int[] bursts = new int[cap];
+        int[] priorities = new int[cap];
+        long[] keys = new long[cap];
+        List<Path> runs = new ArrayList<>();
+        try {
+            while (true) {
+                int n = 0;
+                while (n < runRows && in.next()) {
+                    if (n == cap) { // grow towards runRows so small traces stay small
+                        cap = (int) Math.min(runRows, 2L * cap);
+                        ids = Arrays.copyOf(ids, cap);
+                        arrivals = Arrays.copyOf(arrivals, cap);
+                        bursts = Arrays.copyOf(bursts, cap);
+                        priorities = Arrays.copyOf(priorities, cap);
+                        keys = Arrays.copyOf(keys, cap);
+                    }
+                    ids[n] = in.id();
+                    arrivals[n] = in.arrival();
+                    bursts[n] = in.burst();
+                    priorities[n] = in.priority();
+                    keys[n] = ((long) in.arrival() << 32) | n; // arrival first, then file order
+                    n++;
+                }
+                if (n == 0) break;
+                Arrays.sort(keys, 0, n);
+                if (runs.isEmpty() && n < runRows) {
+                    return new MemoryRun(keys, ids, arrivals, bursts, priorities, n);
+                }
+                runs.add(writeRun(keys, ids, arrivals, bursts, priorities, n));
+                if (n < runRows) break;
+            }
+        } catch (IOException | RuntimeException e) {
+            for (Path p : runs) Files.deleteIfExists(p);
+            throw e;
+        } finally {
+            in.close();
+        }
+        return new Merger(runs);
+    }
+
+    private static Path writeRun(long[] keys, int[] ids, int[] arrivals, int[] bursts, int[] priorities, int n) throws IOException {
+        Path file = Files.createTempFile("cpusched-run", ".bin");
+        file.toFile().deleteOnExit();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            for (int i = 0; i < n; i++) {
+                int row = (int) keys[i];
+                out.writeInt(ids[row]);
+                out.writeInt(arrivals[row]);
+                out.writeInt(bursts[row]);
+                out.writeInt(priorities[row]);
+            }
+        }
+        return file;
+    }
+
+    // A single in-memory run, used when the whole trace fits in one run.
+    private static final class MemoryRun implements TraceSource {
+        private final long[] keys;
+        private final int[] ids, arrivals, bursts, priorities;
+        private final int n;
+        private int pos = -1;
+        private int row;
+
+        MemoryRun(long[] keys, int[] ids, int[] arrivals, int[] bursts, int[] priorities, int n) {
+            this.keys = keys;
+            this.ids = ids;
+            this.arrivals = arrivals;
+            this.bursts = bursts;
+            this.priorities = priorities;
+            this.n = n;
+        }
+
+        @Override
+        public boolean next() {
+            if (++pos >= n) return false;
+            row = (int) keys[pos];
+            return true;
+        }
+
+        @Override public int id() { return ids[row]; }
+        @Override public int arrival() { return arrivals[row]; }
+        @Override public int burst() { return bursts[row]; }
+        @Override public int priority() { return priorities[row]; }
+        @Override public void close() {}
+    }
+
+    // K-way merge over the sorted run files. The head row of every run is kept in a small binary heap ordered by (arrival, id).
+    private static final class Merger implements TraceSource {
+        private final List<Path> files;
+        private final DataInputStream[] inputs;
+        private final int[] headId, headArrival, headBurst, headPriority;
+        private final int[] heap;
+        private int heapSize;
+        private int id, arrival, burst, priority;
+
+        Merger(List<Path> files) throws IOException {
+            this.files = files;
+            int k = files.size();
+            inputs = new DataInputStream[k];
+            headId = new int[k];
+            headArrival = new int[k];
+            headBurst = new int[k];
+            headPriority = new int[k];
+            heap = new int[k];
+            for (int i = 0; i < k; i++) {
+                inputs[i] = new DataInputStream(new BufferedInputStream(Files.newInputStream(files.get(i)), 1 << 16));
+                if (advance(i)) {
+                    heap[heapSize] = i;
+                    siftUp(heapSize++);
+                }
+            }
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            if (heapSize == 0) return false;
+            int r = heap[0];
+            id = headId[r];
+            arrival = headArrival[r];
+            burst = headBurst[r];
+            priority = headPriority[r];
+            if (!advance(r)) {
+                heap[0] = heap[--heapSize];
+            }
+            if (heapSize > 0) siftDown(0);
+            return true;
+        }
+
+        @Override public int id() { return id; }
+        @Override public int arrival() { return arrival; }
+        @Override public int burst() { return burst; }
+        @Override public int priority() { return priority; }
+
+        @Override
+        public void close() throws IOException {
+            for (DataInputStream in : inputs) in.close();
+            for (Path p : files) Files.deleteIfExists(p);
+        }
+
+        private boolean advance(int r) throws IOException {
+            try {
+                headId[r] = inputs[r].readInt();
+                headArrival[r] = inputs[r].readInt();
+                headBurst[r] = inputs[r].readInt();
+                headPriority[r] = inputs[r].readInt();
+                return true;
+            } catch (EOFException e) {
+                return false;
+            }
+        }
+
+        private boolean less(int a, int b) {
+            if (headArrival[a] != headArrival[b]) return headArrival[a] < headArrival[b];
+            return headId[a] < headId[b];
+        }
+
+        private void siftUp(int i) {
+            int x = heap[i];
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!less(x, heap[parent])) break;
+                heap[i] = heap[parent];
+                i = parent;
+            }
+            heap[i] = x;
+        }
+
+        private void siftDown(int i) {
+            int x = heap[i];
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= heapSize) break;
+                if (child + 1 < heapSize && less(heap[child + 1], heap[child])) child++;
+                if (!less(heap[child], x)) break;
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = x;
+        }
+    }
+}
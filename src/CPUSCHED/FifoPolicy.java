@@ -0,0 +1,16 @@
+package CPUSCHED;
+
+// First in, first out: processes run to completion in the order they arrived.
+class FifoPolicy implements SchedulingPolicy {
+    private final IntQueue queue = new IntQueue();
+
+    @Override public String name() { return "FIFO"; }
+    @Override public void attach(ProcessTable table) {}
+    @Override public void arrive(int row, long now) { queue.add(row); }
+    @Override public void requeue(int row, long now, boolean expired) { queue.add(row); }
+    @Override public boolean isEmpty() { return queue.isEmpty(); }
+    @Override public int select(long now) { return queue.poll(); }
+    @Override public long timeSlice(int row) { return Long.MAX_VALUE; }
+    @Override public boolean preemptive() { return false; }
+    @Override public boolean shouldPreempt(int running) { return false; }
+}
@@ -1,18 +1,195 @@
 package CPUSCHED;
 import java.io.*;
-import java.util.Random;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
 
+// This class generates a synthetic trace. With no options it writes a 500-process datafile.txt in the original shape: arrivals 0-29 apart and bursts of 1-50, from seed 42. The arrival gaps and the bursts can each be drawn from any Distribution with a chosen mean, the trace can run to hundreds of millions of rows, and it can be written as text or in the binary columnar format BinaryTrace reads. The rows are generated in fixed-size chunks on a thread pool. Every chunk draws from its own pair of SplittableRandom streams, split off the seed in chunk order, so a given seed and set of options always produce the same file whatever the number of threads. Arrival times are running sums of the gaps, so a first pass sums each chunk's gaps (replaying only its arrival stream) to find where every chunk starts; the second pass generates the chunks in parallel and writes them in order.
 public class GenerateData {
-    public static void main(String[] args) throws IOException {
-        Random r = new Random(42); // fixed seed for reproducibility
-        PrintWriter pw = new PrintWriter("datafile.txt"); // will be created in project root
-        int arrival = 0;
-        for (int i = 0; i < 500; i++) {
-            arrival += r.nextInt(30);
-            int burst = 1 + r.nextInt(50);
-            pw.println(arrival + " " + burst);
+    private static final String USAGE = "Usage: java CPUSCHED.GenerateData [--rows N] [--arrivals D] [--arrival-mean X] [--bursts D] [--burst-mean X] [--seed S] [--format text|binary] [--threads N] [--out FILE]"
+            + "\n  D is one of " + String.join(", ", Distribution.NAMES);
+    private static final int CHUNK = 1 << 18;     // rows per chunk; fixed, so the output does not depend on the thread count
+    private static final int PRIORITY_LEVELS = 10; // priorities 0-9, lower runs first
+    private static final int MAX_LINE = 10 + 1 + 11 + 1 + 1 + 1; // arrival, burst up to 2^30 + 1, priority, two spaces, newline
+
+    public static void main(String[] args) throws Exception {
+        long rows = 500;
+        String arrivalName = "uniform";
+        String burstName = "uniform";
+        double arrivalMean = 14.5;
+        double burstMean = 25.5;
+        long seed = 42; // fixed seed for reproducibility
+        String format = "text";
+        int threads = Runtime.getRuntime().availableProcessors();
+        String out = null;
+        Distribution gaps;
+        Distribution bursts;
+        try {
+            for (int i = 0; i + 1 < args.length; i += 2) {
+                String v = args[i + 1];
+                switch (args[i]) {
+                    case "--rows": rows = parsePositive(v); break;
+                    case "--arrivals": arrivalName = v.toLowerCase(); break;
+                    case "--arrival-mean": arrivalMean = parseMean(v); break;
+                    case "--bursts": burstName = v.toLowerCase(); break;
+                    case "--burst-mean": burstMean = parseMean(v); break;
+                    case "--seed": seed = parseSeed(v); break;
+                    case "--format": format = v.toLowerCase(); break;
+                    case "--threads": threads = (int) Math.min(Integer.MAX_VALUE, parsePositive(v)); break;
+                    case "--out": out = v; break;
+                    default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+            if (args.length % 2 != 0) throw new IllegalArgumentException("Missing value for " + args[args.length - 1]);
+            if (rows > Integer.MAX_VALUE) throw new IllegalArgumentException("At most " + Integer.MAX_VALUE + " rows: process ids are ints.");
+            if (burstMean < 1) throw new IllegalArgumentException("The burst mean must be at least 1.");
+            if (!format.equals("text") && !format.equals("binary")) throw new IllegalArgumentException("Invalid format: " + format);
+            gaps = Distribution.create(arrivalName, arrivalMean);
+            if (gaps == null) throw new IllegalArgumentException("Invalid arrival distribution: " + arrivalName);
+            bursts = Distribution.create(burstName, burstMean - 1); // bursts are 1 + a draw, so a CPU burst is never empty
+            if (bursts == null) throw new IllegalArgumentException("Invalid burst distribution: " + burstName);
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            System.out.println(USAGE);
+            return;
+        }
+        boolean binary = format.equals("binary");
+        if (out == null) out = binary ? "datafile.bin" : "datafile.txt"; // will be created in project root
+
+        long started = System.nanoTime();
+        int chunks = (int) ((rows + CHUNK - 1) / CHUNK);
+        long[] arrivalSeeds = new long[chunks];
+        long[] burstSeeds = new long[chunks];
+        SplittableRandom root = new SplittableRandom(seed);
+        for (int k = 0; k < chunks; k++) {
+            SplittableRandom chunk = root.split();
+            arrivalSeeds[k] = chunk.nextLong();
+            burstSeeds[k] = chunk.nextLong();
+        }
+        long total = rows;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            // First pass: where each chunk's arrivals start
+            List<Future<Long>> sums = new ArrayList<>(chunks);
+            for (int k = 0; k < chunks; k++) {
+                int n = chunkRows(k, total);
+                long s = arrivalSeeds[k];
+                sums.add(pool.submit(() -> {
+                    SplittableRandom r = new SplittableRandom(s);
+                    long sum = 0;
+                    for (int i = 0; i < n; i++) sum += gaps.sample(r);
+                    return sum;
+                }));
+            }
+            long[] starts = new long[chunks];
+            long clock = 0;
+            for (int k = 0; k < chunks; k++) {
+                starts[k] = clock;
+                clock += sums.get(k).get();
+            }
+            if (clock > Integer.MAX_VALUE) {
+                System.out.println("The last arrival would be at " + clock + ", past the largest int time; use fewer rows or a smaller --arrival-mean.");
+                return;
+            }
+
+            // Second pass: generate the chunks in parallel and write them in order, with a bounded number in flight. A binary chunk writes its own slice of each column; a text chunk comes back as formatted bytes for this thread to append.
+            try (FileChannel file = FileChannel.open(Paths.get(out), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                if (binary) {
+                    BinaryTrace.writeHeader(file, total, true);
+                } else {
+                    writeAll(file, ByteBuffer.wrap("ArrivalTime CPUBurstlength Priority\n".getBytes(StandardCharsets.US_ASCII)));
+                }
+                ArrayDeque<Future<ByteBuffer>> inFlight = new ArrayDeque<>();
+                for (int k = 0; k < chunks; k++) {
+                    if (inFlight.size() == 2 * threads) writeAll(file, inFlight.poll().get());
+                    int chunk = k;
+                    inFlight.add(pool.submit(() -> {
+                        int n = chunkRows(chunk, total);
+                        int[] arrival = new int[n];
+                        int[] burst = new int[n];
+                        int[] priority = new int[n];
+                        SplittableRandom ar = new SplittableRandom(arrivalSeeds[chunk]);
+                        SplittableRandom br = new SplittableRandom(burstSeeds[chunk]);
+                        long t = starts[chunk];
+                        for (int i = 0; i < n; i++) {
+                            t += gaps.sample(ar);
+                            arrival[i] = (int) t;
+                            burst[i] = 1 + bursts.sample(br);
+                            priority[i] = br.nextInt(PRIORITY_LEVELS);
+                        }
+                        if (!binary) return format(arrival, burst, priority, n);
+                        long first = (long) chunk * CHUNK;
+                        BinaryTrace.writeColumn(file, total, 0, first, arrival, n);
+                        BinaryTrace.writeColumn(file, total, 1, first, burst, n);
+                        BinaryTrace.writeColumn(file, total, 2, first, priority, n);
+                        return null;
+                    }));
+                }
+                while (!inFlight.isEmpty()) writeAll(file, inFlight.poll().get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+        System.out.println(out + " generated (" + rows + " processes, " + format + ", arrivals " + arrivalName + " mean " + arrivalMean
+                + ", bursts " + burstName + " mean " + burstMean + ", seed " + seed + ") in " + (System.nanoTime() - started) / 1_000_000 + " ms");
+    }
+
+    private static int chunkRows(int chunk, long rows) {
+        return (int) Math.min(CHUNK, rows - (long) chunk * CHUNK);
+    }
+
+    private static void writeAll(FileChannel file, ByteBuffer bytes) throws IOException {
+        if (bytes == null) return;
+        while (bytes.hasRemaining()) file.write(bytes);
+    }
+
+    // Formats rows as "arrival burst priority" lines, writing the digits straight into one byte array rather than building a String per line.
+    private static ByteBuffer format(int[] arrival, int[] burst, int[] priority, int n) {
+        byte[] buf = new byte[n * MAX_LINE];
+        int pos = 0;
+        for (int i = 0; i < n; i++) {
+            pos = digits(buf, pos, arrival[i]);
+            buf[pos++] = ' ';
+            pos = digits(buf, pos, burst[i]);
+            buf[pos++] = ' ';
+            pos = digits(buf, pos, priority[i]);
+            buf[pos++] = '\n';
+        }
+        return ByteBuffer.wrap(buf, 0, pos);
+    }
+
+    private static int digits(byte[] buf, int pos, int v) {
+        int end = pos + 1;
+        for (int x = v; x >= 10; x /= 10) end++;
+        for (int i = end; i > pos; v /= 10) buf[--i] = (byte) ('0' + v % 10);
+        return end;
+    }
+
+    private static long parsePositive(String v) {
+        try {
+            long n = Long.parseLong(v);
+            if (n > 0) return n;
+        } catch (NumberFormatException ignored) {}
+        throw new IllegalArgumentException("Expected a positive number: " + v);
+    }
+
+    private static double parseMean(String v) {
+        try {
+            double m = Double.parseDouble(v);
+            if (m >= 0 && m <= Distribution.CAP) return m;
+        } catch (NumberFormatException ignored) {}
+        throw new IllegalArgumentException("Expected a mean between 0 and " + Distribution.CAP + ": " + v);
+    }
+
+    private static long parseSeed(String v) {
+        try {
+            return Long.parseLong(v);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Expected a whole number seed: " + v);
         }
-        pw.close();
-        System.out.println("datafile.txt generated (500 processes)"); // This code generates a data file named "datafile.txt" containing 500 lines, each representing a process with its arrival time and burst time. The arrival times are generated by cumulatively adding a random integer between 0 and 29 to the previous arrival time, ensuring that the processes arrive in increasing order. The burst times are generated as random integers between 1 and 50. The use of a fixed seed (42) for the Random object ensures that the same data is generated each time the program is run, which can be useful for testing and debugging purposes.
     }
-}
\ No newline at end of file
+}
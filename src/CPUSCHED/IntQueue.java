@@ -0,0 +1,46 @@
+package CPUSCHED;
+import java.util.Arrays;
+
+// A growable FIFO ring of ints, used as the FIFO ready queue so queued processes are row numbers rather than boxed objects or linked-list nodes.
+class IntQueue {
+    private int[] items;
+    private int head;
+    private int size;
+
+    IntQueue() {
+        this(64);
+    }
+
+    IntQueue(int capacity) {
+        items = new int[Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1];
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void add(int value) {
+        if (size == items.length) grow();
+        items[(head + size++) & (items.length - 1)] = value;
+    }
+
+    int poll() {
+        int value = items[head];
+        head = (head + 1) & (items.length - 1);
+        size--;
+        return value;
+    }
+
+    private void grow() {
+        int[] bigger = new int[items.length * 2];
+        int firstPart = Math.min(size, items.length - head);
+        System.arraycopy(items, head, bigger, 0, firstPart);
+        System.arraycopy(items, 0, bigger, firstPart, size - firstPart);
+        items = bigger;
+        head = 0;
+    }
+}
@@ -0,0 +1,67 @@
+package CPUSCHED;
+
+// Multi-level feedback queue. New processes enter the top queue; a process that uses up its whole quantum drops one level, so long CPU-bound jobs sink while short interactive ones finish near the top. Level i has a quantum of base * 2^i (as long as that fits in a long), and the bottom level runs its processes to completion in FIFO order. An arrival preempts a process running on a lower level; a preempted process keeps its level and goes to the back of that queue.
+class MlfqPolicy implements SchedulingPolicy {
+    private final IntQueue[] queues;
+    private final long[] quanta;
+    private ProcessTable t;
+    private int queued;
+
+    MlfqPolicy(int levels, int baseQuantum) {
+        if (levels <= 0) throw new IllegalArgumentException("MLFQ needs at least one level");
+        if (baseQuantum <= 0) throw new IllegalArgumentException("Quantum must be positive");
+        queues = new IntQueue[levels];
+        quanta = new long[levels];
+        for (int i = 0; i < levels; i++) {
+            queues[i] = new IntQueue();
+            // Once base * 2^i no longer fits in a long the quantum saturates to "run to completion"; a quantum that long is never used up anyway
+            quanta[i] = i == levels - 1 || i >= Long.numberOfLeadingZeros(baseQuantum) ? Long.MAX_VALUE : (long) baseQuantum << i;
+        }
+    }
+
+    @Override public String name() { return "MLFQ"; }
+
+    @Override
+    public void attach(ProcessTable table) {
+        table.ensureLevelColumn();
+        t = table;
+    }
+
+    @Override
+    public void arrive(int row, long now) {
+        t.level[row] = 0;
+        queues[0].add(row);
+        queued++;
+    }
+
+    @Override
+    public void requeue(int row, long now, boolean expired) {
+        if (expired && t.level[row] < queues.length - 1) t.level[row]++;
+        queues[t.level[row]].add(row);
+        queued++;
+    }
+
+    @Override public boolean isEmpty() { return queued == 0; }
+
+    @Override
+    public int select(long now) {
+        queued--;
+        for (IntQueue q : queues) {
+            if (!q.isEmpty()) return q.poll();
+        }
+        throw new IllegalStateException("select() on an empty MLFQ");
+    }
+
+    @Override public long timeSlice(int row) { return quanta[t.level[row]]; }
+    @Override public boolean preemptive() { return true; }
+
+    @Override public int preemptionRank(int running) { return t.level[running]; }
+
+    @Override
+    public boolean shouldPreempt(int running) {
+        for (int i = 0; i < t.level[running]; i++) {
+            if (!queues[i].isEmpty()) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,210 @@
+package CPUSCHED;
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+// This class runs a whole matrix of simulations in one JVM: every trace against every algorithm, quantum, core count and dispatch mode given on the command line. Each trace is parsed once into a ProcessTable, and every run gets a run view of it, so the trace columns are shared read-only while each run keeps its own start, completion and remaining columns. The runs are independent, so they go to a fork-join pool as separate tasks, and the results are written as one CSV or JSON table in matrix order whatever order the runs finished in. Running everything in one process also means later runs use code the JIT has already compiled.
+public class ParameterSweep {
+    private static final String USAGE = "Usage: java CPUSCHED.ParameterSweep --traces a.txt,b.txt [--algos FIFO,SJF,...] [--quantum 2,4,8] [--levels 3] [--cores 1,4] [--dispatch global,percore,steal] [--limit N|all] [--threads N] [--out sweep.csv|sweep.json]";
+
+    // One cell of the matrix.
+    private static final class Run {
+        final String trace;
+        final String algo;
+        final int quantum;
+        final int levels;
+        final int cores;
+        final String dispatch;
+        RunStats stats;
+        long millis;
+
+        Run(String trace, String algo, int quantum, int levels, int cores, String dispatch) {
+            this.trace = trace;
+            this.algo = algo;
+            this.quantum = quantum;
+            this.levels = levels;
+            this.cores = cores;
+            this.dispatch = dispatch;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> traces = new ArrayList<>();
+        List<String> algos = Arrays.asList("FIFO", "SJF", "SRTF", "RR", "PRIORITY", "PRIORITY_P", "MLFQ");
+        int[] quanta = {4};
+        int[] levelCounts = {3};
+        int[] coreCounts = {1};
+        List<String> dispatches = Collections.singletonList("global");
+        long limit = 500;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String out = "sweep.csv";
+        try {
+            for (int i = 0; i + 1 < args.length; i += 2) {
+                String v = args[i + 1];
+                switch (args[i]) {
+                    case "--traces": traces = Arrays.asList(v.split(",")); break;
+                    case "--algos": algos = Arrays.asList(v.toUpperCase().split(",")); break;
+                    case "--quantum": quanta = parseList(v); break;
+                    case "--levels": levelCounts = parseList(v); break;
+                    case "--cores": coreCounts = parseList(v); break;
+                    case "--dispatch": dispatches = Arrays.asList(v.toLowerCase().split(",")); break;
+                    case "--limit": limit = v.equalsIgnoreCase("all") ? Long.MAX_VALUE : parseList(v)[0]; break;
+                    case "--threads": threads = parseList(v)[0]; break;
+                    case "--out": out = v; break;
+                    default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+            if (args.length % 2 != 0) throw new IllegalArgumentException("Missing value for " + args[args.length - 1]);
+            if (traces.isEmpty()) throw new IllegalArgumentException("No traces given.");
+            for (String a : algos) {
+                if (SchedulingPolicy.create(a, 1, 1) == null) throw new IllegalArgumentException("Invalid algorithm: " + a);
+            }
+            for (String d : dispatches) {
+                if (!d.equals("global") && !d.equals("percore") && !d.equals("steal")) throw new IllegalArgumentException("Invalid dispatch mode: " + d);
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            System.out.println(USAGE);
+            return;
+        }
+
+        // Expand the matrix. The quantum only matters to RR and MLFQ, the number of levels only to MLFQ, and the dispatch mode only to multi-core runs, so combinations that would repeat a run are left out.
+        List<Run> runs = new ArrayList<>();
+        for (String trace : traces) {
+            for (String algo : algos) {
+                boolean sliced = algo.equals("RR") || algo.equals("MLFQ");
+                for (int q : sliced ? quanta : new int[] {quanta[0]}) {
+                    for (int l : algo.equals("MLFQ") ? levelCounts : new int[] {levelCounts[0]}) {
+                        for (int c : coreCounts) {
+                            for (String d : c > 1 ? dispatches : Collections.singletonList("global")) {
+                                runs.add(new Run(trace, algo, q, l, c, d));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        long started = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            // Parse every trace once, in parallel, before any run starts
+            Map<String, Future<ProcessTable>> loading = new LinkedHashMap<>();
+            for (String trace : traces) {
+                loading.putIfAbsent(trace, pool.submit(() -> ProcessTable.load(trace)));
+            }
+            Map<String, ProcessTable> loaded = new HashMap<>();
+            for (Map.Entry<String, Future<ProcessTable>> e : loading.entrySet()) {
+                try {
+                    loaded.put(e.getKey(), e.getValue().get());
+                } catch (ExecutionException ex) {
+                    // The pool wraps the loader's IOException in a RuntimeException; report the IOException itself, as a single run does
+                    Throwable cause = ex.getCause();
+                    while (!(cause instanceof IOException) && cause.getCause() != null) cause = cause.getCause();
+                    System.err.println("Error reading file " + e.getKey() + ": " + cause.getMessage());
+                    return;
+                }
+            }
+            long parsed = System.nanoTime();
+
+            final long runLimit = limit;
+            List<Callable<Run>> tasks = new ArrayList<>();
+            for (Run r : runs) {
+                tasks.add(() -> simulate(r, loaded.get(r.trace), runLimit));
+            }
+            for (Future<Run> f : pool.invokeAll(tasks)) {
+                f.get(); // surfaces any exception a run threw
+            }
+            long finished = System.nanoTime();
+
+            try (PrintWriter pw = new PrintWriter(new BufferedWriter(new FileWriter(out)))) {
+                if (out.toLowerCase().endsWith(".json")) writeJson(pw, runs);
+                else writeCsv(pw, runs);
+            }
+
+            long cpuMillis = 0;
+            for (Run r : runs) cpuMillis += r.millis;
+            long wallMillis = (finished - parsed) / 1_000_000;
+            System.out.println("Results saved to: " + out);
+            System.out.println(runs.size() + " runs on " + threads + " threads: parse " + (parsed - started) / 1_000_000 + " ms, simulate " + wallMillis + " ms (runs add up to " + cpuMillis + " ms)");
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static Run simulate(Run r, ProcessTable trace, long limit) throws IOException {
+        boolean perCore = !r.dispatch.equals("global");
+        SchedulingPolicy[] queues = new SchedulingPolicy[perCore ? r.cores : 1];
+        for (int q = 0; q < queues.length; q++) {
+            queues[q] = SchedulingPolicy.create(r.algo, r.quantum, r.levels);
+        }
+        long t0 = System.nanoTime();
+        r.stats = SchedulerEngine.run(ArrivalFeed.of(trace.runView()), queues, r.cores, r.dispatch.equals("steal"), limit);
+        r.millis = (System.nanoTime() - t0) / 1_000_000;
+        return r;
+    }
+
+    private static final String[] COLUMNS = {"trace", "algorithm", "quantum", "levels", "cores", "dispatch", "processes", "elapsed", "throughput", "cpu_utilization", "avg_waiting", "avg_turnaround", "avg_response",
+        "p50_waiting", "p99_waiting", "p99_9_waiting", "max_waiting", "p50_turnaround", "p99_turnaround", "p99_9_turnaround", "max_turnaround",
+        "p50_response", "p99_response", "p99_9_response", "max_response", "load_imbalance", "migrations", "steals", "run_ms"};
+
+    private static Object[] values(Run r) {
+        RunStats s = r.stats;
+        return new Object[] {r.trace, s.policy, r.quantum, r.levels, r.cores, r.dispatch, s.processes, s.elapsed,
+            fmt(s.throughput()), fmt(s.cpuUtilization()), fmt(s.averageWaiting()), fmt(s.averageTurnaround()), fmt(s.averageResponse()),
+            s.waiting.valueAt(50), s.waiting.valueAt(99), s.waiting.valueAt(99.9), s.waiting.max(),
+            s.turnaround.valueAt(50), s.turnaround.valueAt(99), s.turnaround.valueAt(99.9), s.turnaround.max(),
+            s.response.valueAt(50), s.response.valueAt(99), s.response.valueAt(99.9), s.response.max(),
+            String.format(Locale.ROOT, "%.3f", s.loadImbalance()), s.migrations, s.steals, r.millis};
+    }
+
+    private static void writeCsv(PrintWriter pw, List<Run> runs) {
+        pw.println(String.join(",", COLUMNS));
+        for (Run r : runs) {
+            Object[] v = values(r);
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < v.length; i++) {
+                if (i > 0) sb.append(',');
+                String s = String.valueOf(v[i]);
+                sb.append(s.indexOf(',') >= 0 || s.indexOf('"') >= 0 ? '"' + s.replace("\"", "\"\"") + '"' : s);
+            }
+            pw.println(sb);
+        }
+    }
+
+    private static void writeJson(PrintWriter pw, List<Run> runs) {
+        pw.println("[");
+        for (int k = 0; k < runs.size(); k++) {
+            Object[] v = values(runs.get(k));
+            StringBuilder sb = new StringBuilder("  {");
+            for (int i = 0; i < v.length; i++) {
+                if (i > 0) sb.append(", ");
+                sb.append('"').append(COLUMNS[i]).append("\": ");
+                String s = String.valueOf(v[i]);
+                if (i == 0 || i == 1 || i == 5) sb.append('"').append(s.replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+                else sb.append(s.isEmpty() ? "null" : s);
+            }
+            pw.println(sb.append(k + 1 < runs.size() ? "}," : "}"));
+        }
+        pw.println("]");
+    }
+
+    // Averages are NaN when a run completed no processes; they are written as empty CSV cells and JSON nulls.
+    private static String fmt(double d) {
+        return Double.isNaN(d) || Double.isInfinite(d) ? "" : String.format(Locale.ROOT, "%.2f", d);
+    }
+
+    private static int[] parseList(String v) {
+        String[] parts = v.split(",");
+        int[] out = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            try {
+                out[i] = Integer.parseInt(parts[i].trim());
+            } catch (NumberFormatException e) {
+                out[i] = -1;
+            }
+            if (out[i] <= 0) throw new IllegalArgumentException("Expected a positive number: " + parts[i]);
+        }
+        return out;
+    }
+}
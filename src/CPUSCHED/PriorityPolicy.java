@@ -0,0 +1,33 @@
+package CPUSCHED;
+
+// Priority scheduling on the trace's third column, where a lower number means a higher priority. Ties go to the earlier arrival and then the lower id. The non-preemptive form lets the running process finish; the preemptive form gives the CPU to an arrival with a strictly higher priority.
+class PriorityPolicy implements SchedulingPolicy {
+    private final ReadyHeap queue = new ReadyHeap(64, false);
+    private final boolean preemptive;
+    private ProcessTable t;
+
+    PriorityPolicy(boolean preemptive) {
+        this.preemptive = preemptive;
+    }
+
+    @Override public String name() { return preemptive ? "PRIORITY_P" : "PRIORITY"; }
+    @Override public void attach(ProcessTable table) { t = table; }
+
+    @Override
+    public void arrive(int row, long now) {
+        queue.add(row, ReadyHeap.key(t.priority[row], t.arrival[row]), t.id[row]);
+    }
+
+    @Override public void requeue(int row, long now, boolean expired) { arrive(row, now); }
+    @Override public boolean isEmpty() { return queue.isEmpty(); }
+    @Override public int select(long now) { return queue.poll(); }
+    @Override public long timeSlice(int row) { return Long.MAX_VALUE; }
+    @Override public boolean preemptive() { return preemptive; }
+
+    @Override public int preemptionRank(int running) { return t.priority[running]; }
+
+    @Override
+    public boolean shouldPreempt(int running) {
+        return !queue.isEmpty() && (int) (queue.peekKey() >> 32) < t.priority[running];
+    }
+}
@@ -0,0 +1,193 @@
+package CPUSCHED;
+import java.io.IOException;
+import java.util.Arrays;
+
+// This class stores processes as a struct of arrays: one primitive column per attribute, indexed by row. It replaces the old per-process Process objects, so a process costs 16 bytes of trace data plus 20 bytes of run state instead of a 32-byte object plus a reference in a list, and the scheduler can walk arrival or burst values with sequential array reads instead of chasing pointers. Start, completion and remaining are run columns, allocated only when a simulation needs them. Start and completion are long columns because at 10^8 rows the cumulative clock runs past Integer.MAX_VALUE. Rows can be released and reused, which lets the streaming mode keep only the processes that are currently in the system.
+class ProcessTable {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int SIZING_SAMPLE = 4096;
+
+    int[] id;
+    int[] arrival;
+    int[] burst;
+    int[] priority;
+    long[] start;
+    long[] completion;
+    int[] remaining;   // CPU time still needed; changes as preemptive policies slice a burst
+    int[] level;       // feedback queue level, allocated by ensureLevelColumn() for MLFQ only
+
+    private int size;        // high-water mark of rows handed out
+    private int[] free = new int[16];
+    private int freeCount;
+
+    ProcessTable() {
+        this(INITIAL_CAPACITY);
+    }
+
+    private ProcessTable(ProcessTable trace) {
+        id = trace.id;
+        arrival = trace.arrival;
+        burst = trace.burst;
+        priority = trace.priority;
+        size = trace.size;
+    }
+
+    ProcessTable(int capacity) {
+        this(capacity, true);
+    }
+
+    // A table created without run columns only holds the trace itself; the run columns are allocated by ensureRunColumns() when a simulation begins, so loading a large trace never has to fit both at once.
+    private ProcessTable(int capacity, boolean runColumns) {
+        capacity = Math.max(capacity, 1);
+        id = new int[capacity];
+        arrival = new int[capacity];
+        burst = new int[capacity];
+        priority = new int[capacity];
+        if (runColumns) ensureRunColumns();
+    }
+
+    // Returns a table over the same trace columns with run columns of its own. The trace columns are shared, not copied, so several simulations can run over one loaded trace at the same time; that is only safe because the in-memory feed never writes them, and a view must not be given rows with add().
+    ProcessTable runView() {
+        return new ProcessTable(this);
+    }
+
+    void ensureRunColumns() {
+        if (start != null) return;
+        start = new long[id.length];
+        completion = new long[id.length];
+        remaining = new int[id.length];
+        Arrays.fill(start, -1);
+        Arrays.fill(completion, -1);
+    }
+
+    // The level lives in the table rather than in the policy so that with per-core queues a process stolen by another core keeps its level.
+    void ensureLevelColumn() {
+        if (level == null) level = new int[id.length];
+    }
+
+    // Number of rows handed out so far, including rows that have since been released.
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return id.length;
+    }
+
+    // Stores a process and returns its row. A previously released row is reused when one is available, otherwise the columns grow by doubling.
+    int add(int pid, int arrivalTime, int burstTime, int prio) {
+        int row;
+        if (freeCount > 0) {
+            row = free[--freeCount];
+        } else {
+            if (size == id.length) grow();
+            row = size++;
+        }
+        id[row] = pid;
+        arrival[row] = arrivalTime;
+        burst[row] = burstTime;
+        priority[row] = prio;
+        if (start != null) {
+            start[row] = -1;
+            completion[row] = -1;
+            remaining[row] = burstTime;
+        }
+        return row;
+    }
+
+    // Hands a finished row back for reuse by a later add().
+    void release(int row) {
+        if (freeCount == free.length) free = Arrays.copyOf(free, freeCount * 2);
+        free[freeCount++] = row;
+    }
+
+    private void grow() {
+        int cap = (int) Math.min(Integer.MAX_VALUE - 8, 2L * id.length);
+        if (cap == id.length) throw new IllegalStateException("Process table is full");
+        ensureCapacity(cap);
+    }
+
+    // Resizes every column to hold at least 'cap' rows. Columns are copied one at a time so the old copy of each can be collected before the next one is allocated.
+    void ensureCapacity(int cap) {
+        if (cap <= id.length) return;
+        id = Arrays.copyOf(id, cap);
+        arrival = Arrays.copyOf(arrival, cap);
+        burst = Arrays.copyOf(burst, cap);
+        priority = Arrays.copyOf(priority, cap);
+        if (start != null) {
+            start = Arrays.copyOf(start, cap);
+            completion = Arrays.copyOf(completion, cap);
+            remaining = Arrays.copyOf(remaining, cap);
+        }
+        if (level != null) level = Arrays.copyOf(level, cap);
+    }
+
+    // This method loads a whole trace, text or binary, into a table whose rows are in arrival order. Rows read in file order keep that order for equal arrival times, which is the same stable ordering List.sort gave the original reader. When the file is already sorted, which is the normal case, the sort is skipped entirely. After the first rows have been read, the table is sized from the average row length and the file size, so a large trace is not loaded through a chain of doubling copies that would leave the columns up to twice as long as needed.
+    static ProcessTable load(String fileName) throws IOException {
+        if (BinaryTrace.isBinary(fileName)) return loadBinary(fileName);
+        ProcessTable t = new ProcessTable(INITIAL_CAPACITY, false);
+        boolean sorted = true;
+        int prev = Integer.MIN_VALUE;
+        try (TraceReader reader = new TraceReader(fileName)) { // skips the header line
+            while (reader.next()) {
+                t.add(reader.id(), reader.arrival(), reader.burst(), reader.priority());
+                if (t.size == SIZING_SAMPLE) {
+                    long estimate = (long) (reader.size() / ((double) reader.position() / SIZING_SAMPLE) * 1.02) + SIZING_SAMPLE;
+                    t.ensureCapacity((int) Math.min(Integer.MAX_VALUE - 8, estimate));
+                }
+                if (reader.arrival() < prev) sorted = false;
+                prev = reader.arrival();
+            }
+        }
+        if (t.size < t.id.length) t.trim();
+        if (!sorted) t.sortByArrival();
+        return t;
+    }
+
+    // A binary trace states its row count and whether it is sorted in its header, so the columns are allocated at their final size and filled by bulk copies from the mapped file, with no parsing, sizing estimate or trim.
+    private static ProcessTable loadBinary(String fileName) throws IOException {
+        try (BinaryTrace trace = new BinaryTrace(fileName)) {
+            if (trace.rows() > Integer.MAX_VALUE - 8) throw new IOException(fileName + " has " + trace.rows() + " rows, too many to load; use --stream");
+            int n = (int) trace.rows();
+            ProcessTable t = new ProcessTable(n, false);
+            for (int i = 0; i < n; i++) t.id[i] = i + 1;
+            trace.readColumns(t.arrival, t.burst, t.priority);
+            t.size = n;
+            if (!trace.sorted()) t.sortByArrival();
+            return t;
+        }
+    }
+
+    // Shrinks the columns to exactly the rows in use; the size estimate in load() can overshoot when early rows are shorter than later ones.
+    private void trim() {
+        id = Arrays.copyOf(id, size);
+        arrival = Arrays.copyOf(arrival, size);
+        burst = Arrays.copyOf(burst, size);
+        priority = Arrays.copyOf(priority, size);
+        if (start != null) {
+            start = Arrays.copyOf(start, size);
+            completion = Arrays.copyOf(completion, size);
+            remaining = Arrays.copyOf(remaining, size);
+        }
+        if (level != null) level = Arrays.copyOf(level, size);
+    }
+
+    private void sortByArrival() {
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) keys[i] = ((long) arrival[i] << 32) | i; // arrival first, then file order
+        Arrays.sort(keys);
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) order[i] = (int) keys[i];
+        keys = null;
+        id = permute(id, order);
+        arrival = permute(arrival, order);
+        burst = permute(burst, order);
+        priority = permute(priority, order);
+    }
+
+    private static int[] permute(int[] column, int[] order) {
+        int[] out = new int[column.length];
+        for (int i = 0; i < order.length; i++) out[i] = column[order[i]];
+        return out;
+    }
+}
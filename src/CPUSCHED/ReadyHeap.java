@@ -0,0 +1,157 @@
+package CPUSCHED;
+import java.util.Arrays;
+
+// This class is a binary min-heap of process rows kept entirely in primitive arrays. Each entry is a row number with a packed long key and an int tie-breaker, so ordering a ready queue by (burst, arrival, id) is two primitive comparisons with no comparator call and no boxed element. An indexed heap also tracks where each row sits, which gives O(log n) decreaseKey and remove for callers that need to change a queued entry's key or pull a specific entry out. That index is an int per possible row, so heaps that never need it (the policies' ready queues, of which per-core dispatch keeps one per core) are created without it.
+class ReadyHeap {
+    private long[] keys;
+    private int[] ties;
+    private int[] rows;
+    private int[] pos; // heap slot of each row, -1 when not queued; null for a heap without an index
+    private int size;
+
+    ReadyHeap() {
+        this(64, true);
+    }
+
+    ReadyHeap(int capacity) {
+        this(capacity, true);
+    }
+
+    ReadyHeap(int capacity, boolean indexed) {
+        if (indexed) pos = new int[0];
+        capacity = Math.max(capacity, 2);
+        keys = new long[capacity];
+        ties = new int[capacity];
+        rows = new int[capacity];
+    }
+
+    // Packs two ints into a key that orders by 'primary' and then 'secondary'. Flipping the sign bit of the low half keeps negative secondaries in the right order once they are treated as unsigned.
+    static long key(int primary, int secondary) {
+        return ((long) primary << 32) | ((secondary ^ Integer.MIN_VALUE) & 0xFFFFFFFFL);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(int row) {
+        checkIndexed();
+        return row < pos.length && pos[row] >= 0;
+    }
+
+    void add(int row, long key, int tie) {
+        if (size == rows.length) {
+            int cap = size * 2;
+            keys = Arrays.copyOf(keys, cap);
+            ties = Arrays.copyOf(ties, cap);
+            rows = Arrays.copyOf(rows, cap);
+        }
+        if (pos != null && row >= pos.length) {
+            int old = pos.length;
+            pos = Arrays.copyOf(pos, Math.max(row + 1, old * 2));
+            Arrays.fill(pos, old, pos.length, -1);
+        }
+        siftUp(size++, key, tie, row);
+    }
+
+    // Row with the smallest key; the heap must not be empty.
+    int peek() {
+        return rows[0];
+    }
+
+    long peekKey() {
+        return keys[0];
+    }
+
+    int poll() {
+        int top = rows[0];
+        if (pos != null) pos[top] = -1;
+        int last = --size;
+        if (last > 0) siftDown(0, keys[last], ties[last], rows[last]);
+        return top;
+    }
+
+    long keyOf(int row) {
+        checkIndexed();
+        return keys[pos[row]];
+    }
+
+    // Lowers the key of a queued row and moves it towards the top. A key that is not lower than the current one is rejected, since it would need a sift down instead.
+    void decreaseKey(int row, long key) {
+        checkIndexed();
+        int i = pos[row];
+        if (key > keys[i]) throw new IllegalArgumentException("decreaseKey would increase the key of row " + row);
+        siftUp(i, key, ties[i], row);
+    }
+
+    // Takes a queued row out of the heap wherever it is.
+    void remove(int row) {
+        checkIndexed();
+        int i = pos[row];
+        pos[row] = -1;
+        int last = --size;
+        if (i == last) return;
+        long k = keys[last];
+        int t = ties[last];
+        int r = rows[last];
+        if (i > 0 && less(k, t, keys[(i - 1) >>> 1], ties[(i - 1) >>> 1])) siftUp(i, k, t, r);
+        else siftDown(i, k, t, r);
+    }
+
+    void clear() {
+        if (pos != null) {
+            for (int i = 0; i < size; i++) pos[rows[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void checkIndexed() {
+        if (pos == null) throw new UnsupportedOperationException("Heap was created without a row index");
+    }
+
+    private static boolean less(long k1, int t1, long k2, int t2) {
+        return k1 < k2 || (k1 == k2 && t1 < t2);
+    }
+
+    // Moves the hole at slot i up until the entry (k, t, r) fits, then stores it there.
+    private void siftUp(int i, long k, int t, int r) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!less(k, t, keys[parent], ties[parent])) break;
+            move(parent, i);
+            i = parent;
+        }
+        set(i, k, t, r);
+    }
+
+    private void siftDown(int i, long k, int t, int r) {
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && less(keys[right], ties[right], keys[child], ties[child])) child = right;
+            if (!less(keys[child], ties[child], k, t)) break;
+            move(child, i);
+            i = child;
+        }
+        set(i, k, t, r);
+    }
+
+    private void move(int from, int to) {
+        keys[to] = keys[from];
+        ties[to] = ties[from];
+        rows[to] = rows[from];
+        if (pos != null) pos[rows[to]] = to;
+    }
+
+    private void set(int i, long k, int t, int r) {
+        keys[i] = k;
+        ties[i] = t;
+        rows[i] = r;
+        if (pos != null) pos[r] = i;
+    }
+}
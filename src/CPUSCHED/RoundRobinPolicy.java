@@ -0,0 +1,22 @@
+package CPUSCHED;
+
+// Round robin: processes take turns in arrival order, each running for at most one quantum before going to the back of the queue. Processes that arrive at the instant a quantum expires are queued ahead of the process being sent back.
+class RoundRobinPolicy implements SchedulingPolicy {
+    private final IntQueue queue = new IntQueue();
+    private final int quantum;
+
+    RoundRobinPolicy(int quantum) {
+        if (quantum <= 0) throw new IllegalArgumentException("Quantum must be positive");
+        this.quantum = quantum;
+    }
+
+    @Override public String name() { return "RR"; }
+    @Override public void attach(ProcessTable table) {}
+    @Override public void arrive(int row, long now) { queue.add(row); }
+    @Override public void requeue(int row, long now, boolean expired) { queue.add(row); }
+    @Override public boolean isEmpty() { return queue.isEmpty(); }
+    @Override public int select(long now) { return queue.poll(); }
+    @Override public long timeSlice(int row) { return quantum; }
+    @Override public boolean preemptive() { return false; }
+    @Override public boolean shouldPreempt(int running) { return false; }
+}
@@ -0,0 +1,97 @@
+package CPUSCHED;
+import java.io.PrintStream;
+import java.util.Locale;
+import STATS.Histogram;
+
+// This class collects the totals of one simulation run and prints them as the "Statistics for the Run" block. The formulas are the ones from the spec, including throughput as total burst time over the number of processes completed. Next to the averages it keeps a histogram of each of waiting, turnaround and response time, so the block also shows their median, tail (99th and 99.9th percentile) and maximum, which the averages hide. On a multi-core run CPU utilization is averaged over the cores, and the block also reports per-core utilization, load imbalance (busiest core's busy time over the mean), migrations (a process resuming on a different core than it last ran on) and work steals.
+class RunStats {
+    final String policy;
+    final int cores;
+    final boolean perCore;
+    final boolean steal;
+    final long[] coreBusy;
+    long migrations;
+    long steals;
+    long processes;
+    long elapsed;
+    long totalBurst;
+    double totalWaiting;
+    double totalTurnaround;
+    double totalResponse;
+    final Histogram waiting = new Histogram();
+    final Histogram turnaround = new Histogram();
+    final Histogram response = new Histogram();
+
+    RunStats(String policy, int cores, boolean perCore, boolean steal) {
+        this.policy = policy;
+        this.cores = cores;
+        this.perCore = perCore;
+        this.steal = steal;
+        this.coreBusy = new long[cores];
+    }
+
+    double throughput() { return (double) totalBurst / processes; }
+    double cpuUtilization() { return (totalBurst / ((double) elapsed * cores)) * 100; }
+    double coreUtilization(int c) { return (coreBusy[c] / (double) elapsed) * 100; }
+
+    double loadImbalance() {
+        long max = 0, sum = 0;
+        for (long b : coreBusy) {
+            max = Math.max(max, b);
+            sum += b;
+        }
+        return sum == 0 ? 1.0 : max / ((double) sum / cores);
+    }
+
+    double averageWaiting() { return totalWaiting / processes; }
+    double averageTurnaround() { return totalTurnaround / processes; }
+    double averageResponse() { return totalResponse / processes; }
+
+    void print(PrintStream out) {
+        if (processes == 0) {
+            out.println("No processes found in file.");
+            return;
+        }
+        out.println("Statistics for the Run");
+        out.println("Number of processes: " + processes);
+        out.println("Total elapsed time (for the scheduler): " + String.format("%.0f", (double) elapsed));
+        out.println("Throughput (Number of processes executed in one unit of CPU burst time): " + String.format("%.2f", throughput()));
+        out.println("CPU utilization: " + String.format("%.2f", cpuUtilization()) + "%");
+        out.println("Average waiting time (in CPU burst times): " + String.format("%.2f", averageWaiting()));
+        out.println("Average turnaround time (in CPU burst times): " + String.format("%.2f", averageTurnaround()));
+        out.println("Average response time (in CPU burst times): " + String.format("%.2f", averageResponse()));
+        out.println("Waiting time percentiles: " + waiting.summary(1, "%.0f"));
+        out.println("Turnaround time percentiles: " + turnaround.summary(1, "%.0f"));
+        out.println("Response time percentiles: " + response.summary(1, "%.0f"));
+        if (cores > 1) {
+            out.println("Number of cores: " + cores + " (" + (perCore ? "per-core queues" + (steal ? " with work stealing" : "") : "global queue") + ")");
+            for (int c = 0; c < cores; c++) {
+                out.println("  Core " + (c + 1) + " utilization: " + String.format("%.2f", coreUtilization(c)) + "%");
+            }
+            out.println("Load imbalance (max/mean core busy time): " + String.format("%.3f", loadImbalance()));
+            out.println("Migrations: " + migrations);
+            if (steal) out.println("Work steals: " + steals);
+        }
+    }
+
+    // The run as one line of JSON, for --metrics: the averages and the percentiles of waiting, turnaround and response time.
+    String toJson(String trace) {
+        StringBuilder sb = new StringBuilder("{\"trace\": \"").append(trace.replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+        sb.append(", \"algorithm\": \"").append(policy).append("\", \"cores\": ").append(cores);
+        sb.append(", \"processes\": ").append(processes).append(", \"elapsed\": ").append(elapsed);
+        sb.append(", \"avg_waiting\": ").append(json(averageWaiting()));
+        sb.append(", \"avg_turnaround\": ").append(json(averageTurnaround()));
+        sb.append(", \"avg_response\": ").append(json(averageResponse()));
+        sb.append(", \"waiting\": ");
+        waiting.appendJson(sb, 1);
+        sb.append(", \"turnaround\": ");
+        turnaround.appendJson(sb, 1);
+        sb.append(", \"response\": ");
+        response.appendJson(sb, 1);
+        return sb.append('}').toString();
+    }
+
+    private static String json(double d) {
+        return Double.isNaN(d) || Double.isInfinite(d) ? "null" : String.format(Locale.ROOT, "%.2f", d);
+    }
+}
@@ -0,0 +1,236 @@
+package CPUSCHED;
+import java.io.IOException;
+import java.util.Arrays;
+
+// This class is the event-driven core of the simulator. Instead of ticking the clock one unit at a time, it jumps straight from one event to the next: a completion, the end of a time slice, or an arrival that matters (an idle core can take it, or the policy can preempt for it). When every core is idle it jumps to the next arrival, so gaps in the trace cost nothing. All arrivals that share a timestamp are admitted as one batch, and preemption is only considered once per batch, after every idle core has taken what it can: an arrival never pushes a process off one core while another core sits idle. Processes whose slice expires are requeued after the arrivals of that same instant. The policy decides what runs; the engine keeps the clock, the cores and the totals.
+//
+// The engine simulates one or more cores. With a single policy instance all cores share one global ready queue. With one instance per core each core has its own run queue: arrivals go to an idle core if there is one and otherwise to the shorter of two hashed candidate queues, and with stealing enabled an idle core whose queue is empty takes work from the longest queue. A core only settles the remaining time of its process when the process stops, and the next core event comes from a heap keyed by slice end, so the cost of an event grows with log(cores) rather than with the number of cores.
+class SchedulerEngine {
+    private final ArrivalFeed feed;
+    private final ProcessTable t;
+    private final SchedulingPolicy[] queues;
+    private final int cores;
+    private final boolean perCore;
+    private final boolean steal;
+    private final RunStats stats;
+
+    private final int[] running;     // row on each core, -1 when idle
+    private final long[] runStart;   // when the running process was dispatched
+    private final int[] queued;      // processes waiting in each queue
+    private final int[] pending;     // per core: 1 while its expired process waits to be requeued
+    private long totalQueued;
+    private final int[] idle;        // stack of idle cores
+    private int idleCount;
+    private final int[] expiredRows; // processes whose slice just ran out, requeued after this instant's arrivals
+    private final int[] expiredCores;
+    private int expiredCount;
+    private int[] lastCore;          // core each row last ran on, -1 before its first dispatch
+    private final ReadyHeap events;  // running cores keyed by slice end
+    private long now;
+    private long limit;
+
+    private SchedulerEngine(ArrivalFeed feed, SchedulingPolicy[] queues, int cores, boolean steal) {
+        this.feed = feed;
+        this.t = feed.table;
+        this.queues = queues;
+        this.cores = cores;
+        this.perCore = queues.length > 1;
+        this.steal = steal && perCore;
+        this.stats = new RunStats(queues[0].name(), cores, perCore, this.steal);
+        running = new int[cores];
+        runStart = new long[cores];
+        queued = new int[queues.length];
+        pending = new int[cores];
+        idle = new int[cores];
+        expiredRows = new int[cores];
+        expiredCores = new int[cores];
+        lastCore = new int[Math.max(t.capacity(), 1)];
+        events = new ReadyHeap(cores);
+        for (int c = cores - 1; c >= 0; c--) {
+            running[c] = -1;
+            idle[idleCount++] = c;
+        }
+    }
+
+    static RunStats run(ArrivalFeed feed, SchedulingPolicy policy, long limit) throws IOException {
+        return run(feed, new SchedulingPolicy[] {policy}, 1, false, limit);
+    }
+
+    // Runs the simulation on 'cores' cores. 'queues' holds either a single policy, giving one global queue shared by every core, or one policy per core, giving per-core run queues.
+    static RunStats run(ArrivalFeed feed, SchedulingPolicy[] queues, int cores, boolean steal, long limit) throws IOException {
+        if (queues.length != 1 && queues.length != cores) throw new IllegalArgumentException("Need one queue, or one queue per core");
+        return new SchedulerEngine(feed, queues, cores, steal).run(limit);
+    }
+
+    private RunStats run(long limit) throws IOException {
+        this.limit = limit;
+        t.ensureRunColumns();
+        for (SchedulingPolicy q : queues) q.attach(t);
+        boolean preemptive = queues[0].preemptive();
+        long admitted = 0;
+
+        while (stats.processes < limit) {
+            // Admit the batch of arrivals up to the current time
+            boolean arrived = false;
+            while (feed.hasNext() && feed.nextArrival() <= now) {
+                int row = feed.admit();
+                // Only sum bursts for the first 'limit' arrivals (or all if fewer)
+                if (admitted++ < limit) stats.totalBurst += t.burst[row];
+                t.remaining[row] = t.burst[row];
+                if (row >= lastCore.length) lastCore = Arrays.copyOf(lastCore, Math.max(row + 1, lastCore.length * 2));
+                lastCore[row] = -1;
+                int q = perCore ? pickQueue(t.id[row]) : 0;
+                queues[q].arrive(row, now);
+                queued[q]++;
+                totalQueued++;
+                arrived = true;
+            }
+            for (int i = 0; i < expiredCount; i++) {
+                pending[expiredCores[i]] = 0;
+                int q = perCore ? expiredCores[i] : 0;
+                queues[q].requeue(expiredRows[i], now, true);
+                queued[q]++;
+                totalQueued++;
+            }
+            expiredCount = 0;
+
+            // Give work to idle cores: their own queue first, then (when stealing) the longest other queue
+            for (int i = idleCount - 1; i >= 0 && totalQueued > 0; i--) {
+                int c = idle[i];
+                int q = perCore ? c : 0;
+                boolean stolen = false;
+                if (queued[q] == 0) {
+                    if (!steal) continue;
+                    q = longestQueue();
+                    stolen = true;
+                }
+                idle[i] = idle[--idleCount];
+                queued[q]--;
+                totalQueued--;
+                if (stolen) stats.steals++;
+                dispatch(c, stolen ? queues[q].steal(now) : queues[q].select(now));
+            }
+
+            // Only what the idle cores left queued may take the CPU away from a running process
+            if (arrived && preemptive) {
+                if (perCore) preemptEachCore();
+                else preemptWorst();
+            }
+
+            // Advance to the next event: a slice end, or the next arrival if a core is idle or arrivals can preempt
+            long until = events.isEmpty() ? Long.MAX_VALUE : events.peekKey();
+            if (feed.hasNext() && (preemptive || idleCount > 0) && feed.nextArrival() < until) until = feed.nextArrival();
+            if (until == Long.MAX_VALUE) break; // No more processes
+            now = until;
+
+            // Retire or expire every core whose slice ends now
+            while (!events.isEmpty() && events.peekKey() == now) {
+                int c = events.poll();
+                int r = running[c];
+                settle(c);
+                running[c] = -1;
+                idle[idleCount++] = c;
+                if (t.remaining[r] == 0) {
+                    complete(r);
+                } else {
+                    expiredRows[expiredCount] = r;
+                    expiredCores[expiredCount++] = c;
+                    pending[c] = 1;
+                }
+            }
+        }
+        feed.close();
+        stats.elapsed = now;
+        return stats;
+    }
+
+    private void dispatch(int c, int row) {
+        if (lastCore[row] >= 0 && lastCore[row] != c) stats.migrations++;
+        lastCore[row] = c;
+        if (t.start[row] < 0) t.start[row] = now;
+        running[c] = row;
+        runStart[c] = now;
+        long slice = queues[perCore ? c : 0].timeSlice(row);
+        events.add(c, now + (slice < t.remaining[row] ? slice : t.remaining[row]), c);
+    }
+
+    // With one global queue: while the best queued process beats the worst running one (by the policy's rank, the lowest core on a tie), that core is preempted.
+    private void preemptWorst() {
+        SchedulingPolicy q = queues[0];
+        for (int c = 0; c < cores; c++) {
+            if (running[c] >= 0) settle(c);
+        }
+        while (queued[0] > 0) {
+            int victim = -1;
+            for (int c = 0; c < cores; c++) {
+                if (running[c] >= 0 && (victim < 0 || q.preemptionRank(running[c]) > q.preemptionRank(running[victim]))) victim = c;
+            }
+            if (victim < 0 || !q.shouldPreempt(running[victim])) return;
+            q.requeue(running[victim], now, false);
+            events.remove(victim);
+            dispatch(victim, q.select(now));
+        }
+    }
+
+    // With per-core queues each core's queue can only preempt that core.
+    private void preemptEachCore() {
+        for (int c = 0; c < cores; c++) {
+            int r = running[c];
+            if (r < 0 || queued[c] == 0) continue;
+            settle(c);
+            if (queues[c].shouldPreempt(r)) {
+                queues[c].requeue(r, now, false);
+                events.remove(c);
+                dispatch(c, queues[c].select(now));
+            }
+        }
+    }
+
+    // Charges the time core c has run since its last settle to the process and to the core.
+    private void settle(int c) {
+        long ran = now - runStart[c];
+        t.remaining[running[c]] -= (int) ran;
+        stats.coreBusy[c] += ran;
+        runStart[c] = now;
+    }
+
+    private void complete(int r) {
+        t.completion[r] = now;
+        feed.retire(r);
+        if (stats.processes == limit) return; // other cores finishing at the same instant as the last counted process
+        stats.processes++;
+        long turnaround = now - t.arrival[r];
+        long waiting = turnaround - t.burst[r];
+        long response = t.start[r] - t.arrival[r];
+        stats.totalTurnaround += turnaround;
+        stats.totalWaiting += waiting;
+        stats.totalResponse += response;
+        stats.turnaround.record(turnaround);
+        stats.waiting.record(waiting);
+        stats.response.record(response);
+    }
+
+    // Picks the run queue for an arriving process: a core with nothing running, queued or about to be requeued if there is one, otherwise the less loaded of two cores chosen by hashing the process id (power of two choices).
+    private int pickQueue(int id) {
+        for (int i = idleCount - 1; i >= 0; i--) {
+            int c = idle[i];
+            if (queued[c] == 0 && pending[c] == 0) return c;
+        }
+        int h = id * 0x9E3779B9;
+        int a = (int) (((h & 0xFFFFFFFFL) * cores) >>> 32);
+        int b = (int) ((((h * 0x85EBCA6B) ^ (h >>> 15)) & 0xFFFFFFFFL) * cores >>> 32);
+        return load(b) < load(a) ? b : a;
+    }
+
+    private int load(int c) {
+        return queued[c] + pending[c] + (running[c] >= 0 ? 1 : 0);
+    }
+
+    private int longestQueue() {
+        int best = 0;
+        for (int q = 1; q < queued.length; q++) {
+            if (queued[q] > queued[best]) best = q;
+        }
+        return best;
+    }
+}
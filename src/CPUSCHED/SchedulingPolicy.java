@@ -0,0 +1,52 @@
+package CPUSCHED;
+
+// A SchedulingPolicy owns the ready queue and decides which process runs next; the SchedulerEngine owns the clock, the running process and the statistics. The engine tells the policy when a process arrives, when a running process gives up the CPU without finishing, and asks it for the next process to run and for how long. Preemptive policies are also asked, once per batch of simultaneous arrivals, whether the running process should give way to something in the queue. All processes are identified by their row in the ProcessTable passed to attach().
+interface SchedulingPolicy {
+    String name();
+
+    void attach(ProcessTable table);
+
+    // A process has arrived and is ready to run.
+    void arrive(int row, long now);
+
+    // A process stopped running before it finished: its time slice ran out (expired) or it was preempted by an arrival.
+    void requeue(int row, long now, boolean expired);
+
+    boolean isEmpty();
+
+    // Removes and returns the row of the process to run next; only called when the queue is not empty.
+    int select(long now);
+
+    // Removes a process for another core's work stealing. By default the thief takes the process this queue would have run next.
+    default int steal(long now) {
+        return select(now);
+    }
+
+    // Longest time the selected process may run before it is requeued; Long.MAX_VALUE means until it finishes or is preempted.
+    long timeSlice(int row);
+
+    // True when arrivals can take the CPU away from the running process.
+    boolean preemptive();
+
+    // Called after a batch of arrivals on preemptive policies; true if the running row should be requeued in favour of a queued process.
+    boolean shouldPreempt(int running);
+
+    // How badly a running process holds on to its CPU, higher being worse: with several cores on one queue, the engine offers a preemption to the running process with the highest rank. Only asked of preemptive policies.
+    default int preemptionRank(int running) {
+        return 0;
+    }
+
+    // This method creates the policy for a name given on the command line, or returns null when the name is not known. The quantum is used by RR and as the top-level quantum of MLFQ, whose lower levels double it; levels is the number of MLFQ queues.
+    static SchedulingPolicy create(String name, int quantum, int levels) {
+        switch (name) {
+            case "FIFO": return new FifoPolicy();
+            case "SJF": return new SjfPolicy();
+            case "SRTF": return new SrtfPolicy();
+            case "RR": return new RoundRobinPolicy(quantum);
+            case "PRIORITY": return new PriorityPolicy(false);
+            case "PRIORITY_P": return new PriorityPolicy(true);
+            case "MLFQ": return new MlfqPolicy(levels, quantum);
+            default: return null;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package CPUSCHED;
+
+// Non-preemptive shortest job first: the queued process with the smallest burst runs to completion, ties going to the earlier arrival and then the lower id.
+class SjfPolicy implements SchedulingPolicy {
+    private final ReadyHeap queue = new ReadyHeap(64, false);
+    private ProcessTable t;
+
+    @Override public String name() { return "SJF"; }
+    @Override public void attach(ProcessTable table) { t = table; }
+
+    @Override
+    public void arrive(int row, long now) {
+        queue.add(row, ReadyHeap.key(t.burst[row], t.arrival[row]), t.id[row]);
+    }
+
+    @Override public void requeue(int row, long now, boolean expired) { arrive(row, now); }
+    @Override public boolean isEmpty() { return queue.isEmpty(); }
+    @Override public int select(long now) { return queue.poll(); }
+    @Override public long timeSlice(int row) { return Long.MAX_VALUE; }
+    @Override public boolean preemptive() { return false; }
+    @Override public boolean shouldPreempt(int running) { return false; }
+}
@@ -0,0 +1,28 @@
+package CPUSCHED;
+
+// Shortest remaining time first, the preemptive form of SJF. Queued processes are ordered by the CPU time they still need, and an arrival that needs strictly less than what the running process has left takes the CPU.
+class SrtfPolicy implements SchedulingPolicy {
+    private final ReadyHeap queue = new ReadyHeap(64, false);
+    private ProcessTable t;
+
+    @Override public String name() { return "SRTF"; }
+    @Override public void attach(ProcessTable table) { t = table; }
+
+    @Override
+    public void arrive(int row, long now) {
+        queue.add(row, ReadyHeap.key(t.remaining[row], t.arrival[row]), t.id[row]);
+    }
+
+    @Override public void requeue(int row, long now, boolean expired) { arrive(row, now); }
+    @Override public boolean isEmpty() { return queue.isEmpty(); }
+    @Override public int select(long now) { return queue.poll(); }
+    @Override public long timeSlice(int row) { return Long.MAX_VALUE; }
+    @Override public boolean preemptive() { return true; }
+
+    @Override public int preemptionRank(int running) { return t.remaining[running]; }
+
+    @Override
+    public boolean shouldPreempt(int running) {
+        return !queue.isEmpty() && (int) (queue.peekKey() >> 32) < t.remaining[running];
+    }
+}
@@ -0,0 +1,163 @@
+package CPUSCHED;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// This class reads an "<arrival> <burst> [priority]" text trace straight out of a memory-mapped file. It parses the digits byte by byte instead of building a String per line, so reading tens of millions of rows costs no garbage and the heap does not grow with the size of the file. Files larger than one mapping window are walked in consecutive windows. The parsing rules match the original BufferedReader version: the first line is always treated as a header, blank lines are ignored, lines whose first two columns are not integers are skipped without consuming an id, and a third column is read as the process priority when it is an integer (anything after it is ignored).
+class TraceReader implements TraceSource {
+    private static final long WINDOW = 1L << 28; // 256 MB per mapping
+    private static final int EOF = -1;
+    private static final long INVALID = Long.MIN_VALUE;
+
+    private final FileChannel channel;
+    private final long size;
+    private long windowStart;
+    private MappedByteBuffer window;
+    private int last; // character that terminated the most recent token
+
+    private int nextId = 1;
+    private int id;
+    private int arrival;
+    private int burst;
+    private int priority;
+
+    public TraceReader(String fileName) throws IOException {
+        this(Paths.get(fileName));
+    }
+
+    public TraceReader(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        size = channel.size();
+        windowStart = 0;
+        map(0);
+        skipLine(); // header
+    }
+
+    // This method scans a trace once and reports whether its rows are already in non-decreasing arrival order. The streaming mode uses it to decide whether the file can be fed to the simulator directly or has to go through the external sort first.
+    public static boolean isArrivalOrdered(String fileName) throws IOException {
+        try (TraceReader r = new TraceReader(fileName)) {
+            long prev = Long.MIN_VALUE;
+            while (r.next()) {
+                if (r.arrival < prev) return false;
+                prev = r.arrival;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        while (true) {
+            int c = skipBlanks(read());
+            if (c == EOF) return false;
+            if (c == '\n') continue;
+
+            long a = parseToken(c);
+            long b = INVALID;
+            long prio = INVALID;
+            if (a != INVALID) b = nextToken();
+            if (b != INVALID) prio = nextToken();
+            if (last != '\n' && last != EOF) skipLine();
+
+            if (a != INVALID && b != INVALID) {
+                id = nextId++;
+                arrival = (int) a;
+                burst = (int) b;
+                priority = prio == INVALID ? 0 : (int) prio;
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public int id() { return id; }
+
+    @Override
+    public int arrival() { return arrival; }
+
+    @Override
+    public int burst() { return burst; }
+
+    @Override
+    public int priority() { return priority; }
+
+    // Byte offset of the parser in the file and total file size, used to estimate how many rows a trace holds.
+    long position() { return windowStart + window.position(); }
+
+    long size() { return size; }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    // Parses one whitespace-delimited token starting with character c. It returns the value as a long, or INVALID when the token is not a plain (optionally signed) int, mirroring what Integer.parseInt would accept. The character that ended the token is left in 'last'.
+    private long parseToken(int c) throws IOException {
+        boolean negative = false;
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            c = read();
+        }
+        long value = 0;
+        int digits = 0;
+        boolean ok = true;
+        while (c != EOF && !isBlank(c) && c != '\n') {
+            if (c >= '0' && c <= '9' && ok) {
+                value = value * 10 + (c - '0');
+                if (++digits > 10) ok = false;
+            } else {
+                ok = false;
+            }
+            c = read();
+        }
+        last = c;
+        if (!ok || digits == 0) return INVALID;
+        if (negative) value = -value;
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) return INVALID;
+        return value;
+    }
+
+    // Parses the next token on the current line, or returns INVALID without reading further when the line has already ended.
+    private long nextToken() throws IOException {
+        if (last == '\n' || last == EOF) return INVALID;
+        int c = skipBlanks(read());
+        if (c == '\n' || c == EOF) {
+            last = c;
+            return INVALID;
+        }
+        return parseToken(c);
+    }
+
+    private int skipBlanks(int c) throws IOException {
+        while (isBlank(c)) c = read();
+        return c;
+    }
+
+    private void skipLine() throws IOException {
+        int c;
+        do { c = read(); } while (c != '\n' && c != EOF);
+        last = c;
+    }
+
+    private static boolean isBlank(int c) {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\f' || c == 0x0B;
+    }
+
+    private int read() throws IOException {
+        if (!window.hasRemaining()) {
+            long next = windowStart + window.capacity();
+            if (next >= size) return EOF;
+            map(next);
+        }
+        return window.get() & 0xFF;
+    }
+
+    private void map(long start) throws IOException {
+        windowStart = start;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW, size - start));
+    }
+}
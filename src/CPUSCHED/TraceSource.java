@@ -0,0 +1,12 @@
+package CPUSCHED;
+import java.io.Closeable;
+import java.io.IOException;
+
+// A TraceSource hands the simulator one process at a time in arrival order, without ever materialising the whole trace. Callers advance with next() and then read the current row through id(), arrival(), burst() and priority(); the values stay valid until the following call to next(). The priority comes from an optional third column and is 0 when the trace does not have one. Ids are 1-based and follow the order the rows appear in the input file, which keeps ties between equal arrival times in the same order the original list-based reader produced.
+interface TraceSource extends Closeable {
+    boolean next() throws IOException;
+    int id();
+    int arrival();
+    int burst();
+    int priority();
+}
@@ -0,0 +1,47 @@
+package PRODUCER_CONSUMER;
+import java.util.concurrent.atomic.AtomicLong;
+
+// This class adds up the bytes the producer and consumer threads of one run allocate, from the HotSpot per-thread allocation counter. A thread reads its own counter when its task starts and adds the difference when the task ends; the threads of a pool, which only ever run the run's tasks, are read whole once the run is over. Where the JVM has no such counter, or a task ran on a virtual thread, the total is marked unknown and the reports leave it out.
+class AllocationMeter {
+    private static final com.sun.management.ThreadMXBean COUNTER = counter();
+
+    private final AtomicLong bytes = new AtomicLong();
+    private volatile boolean unknown = COUNTER == null;
+
+    // Bytes the current thread has allocated so far, or -1 where that is not known (no counter, or a virtual thread).
+    static long threadBytes() {
+        return COUNTER == null ? -1 : COUNTER.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    // Adds what the current thread allocated since the reading 'since'.
+    void countSince(long since) {
+        long now = threadBytes();
+        if (since < 0 || now < 0) unknown = true;
+        else bytes.addAndGet(now - since);
+    }
+
+    // Adds everything thread t has allocated in its life.
+    void countThread(Thread t) {
+        long n = COUNTER == null ? -1 : COUNTER.getThreadAllocatedBytes(t.getId());
+        if (n < 0) unknown = true;
+        else bytes.addAndGet(n);
+    }
+
+    boolean unknown() { return unknown; }
+
+    long bytes() { return bytes.get(); }
+
+    private static com.sun.management.ThreadMXBean counter() {
+        try {
+            java.lang.management.ThreadMXBean mx = java.lang.management.ManagementFactory.getThreadMXBean();
+            if (mx instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean hs = (com.sun.management.ThreadMXBean) mx;
+                if (hs.isThreadAllocatedMemorySupported()) {
+                    hs.setThreadAllocatedMemoryEnabled(true);
+                    return hs;
+                }
+            }
+        } catch (LinkageError | RuntimeException ignored) {}
+        return null;
+    }
+}
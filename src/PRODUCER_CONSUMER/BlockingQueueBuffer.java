@@ -0,0 +1,47 @@
+package PRODUCER_CONSUMER;
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+
+// This class adapts the JDK's ArrayBlockingQueue to RecordBuffer. It is a preallocated array guarded by one ReentrantLock with two conditions, which makes it the baseline to compare the semaphore buffer and the ring buffer against. ArrayBlockingQueue has no bulk put, so putAll is a loop of puts. drainTo uses the queue's own drainTo into a list kept per consumer thread and reused, so a batch costs one lock acquire when records are waiting; only when the queue is empty does it wait in take() and then drain the rest, two acquires.
+public class BlockingQueueBuffer implements RecordBuffer {
+    private final ArrayBlockingQueue<SalesRecord> queue;
+    private final ThreadLocal<ArrayList<SalesRecord>> drained = ThreadLocal.withInitial(ArrayList::new);
+
+    public BlockingQueueBuffer(int cap) {
+        queue = new ArrayBlockingQueue<>(cap);
+    }
+
+    @Override
+    public void put(SalesRecord item) throws InterruptedException {
+        queue.put(item);
+    }
+
+    @Override
+    public SalesRecord take() throws InterruptedException {
+        return queue.take();
+    }
+
+    @Override public boolean offer(SalesRecord item) { return queue.offer(item); }
+    @Override public SalesRecord poll() { return queue.poll(); }
+    @Override public boolean isEmpty() { return queue.isEmpty(); }
+    @Override public boolean isFull() { return queue.remainingCapacity() == 0; }
+    @Override public int size() { return queue.size(); }
+
+    @Override
+    public void putAll(SalesRecord[] batch, int count) throws InterruptedException {
+        for (int i = 0; i < count; i++) queue.put(batch[i]);
+    }
+
+    @Override
+    public int drainTo(SalesRecord[] target, int max) throws InterruptedException {
+        ArrayList<SalesRecord> list = drained.get();
+        if (queue.drainTo(list, max) == 0) {
+            list.add(queue.take());
+            if (max > 1) queue.drainTo(list, max - 1);
+        }
+        int n = list.size();
+        for (int i = 0; i < n; i++) target[i] = list.get(i);
+        list.clear();
+        return n;
+    }
+}
@@ -2,7 +2,7 @@ package PRODUCER_CONSUMER;
 import java.util.*;
 import java.util.concurrent.Semaphore;
 
-public class BoundedBuffer {
+public class BoundedBuffer implements RecordBuffer {
     private final LinkedList<SalesRecord> buffer = new LinkedList<>();
     private final int capacity;
     public final Semaphore empty;
@@ -14,6 +14,7 @@ public class BoundedBuffer {
         empty = new Semaphore(cap);
     }
     // The put method allows a producer to add a SalesRecord item to the buffer. It first acquires the empty semaphore to ensure there is space in the buffer, then acquires the mutex to gain exclusive access to the buffer. After adding the item, it releases the mutex and then releases the full semaphore to signal that there is an additional item in the buffer for consumers to take.
+    @Override
     public void put(SalesRecord item) throws InterruptedException {
         empty.acquire();
         mutex.acquire();
@@ -25,6 +26,7 @@ public class BoundedBuffer {
         full.release();
     }
     // The take method allows a consumer to remove a SalesRecord item from the buffer. It first acquires the full semaphore to ensure there is at least one item in the buffer, then acquires the mutex to gain exclusive access to the buffer. After removing an item, it releases the mutex and then releases the empty semaphore to signal that there is now additional space in the buffer for producers to add more items.
+    @Override
     public SalesRecord take() throws InterruptedException {
         full.acquire();
         mutex.acquire();
@@ -37,4 +39,82 @@ public class BoundedBuffer {
         empty.release();
         return item;
     }
-}
\ No newline at end of file
+    // The offer and poll methods are the non-blocking forms of put and take: they only try the counting semaphore, so a full (or empty) buffer makes them return at once instead of waiting. The mutex is still acquired normally, since it is only ever held for one list operation.
+    @Override
+    public boolean offer(SalesRecord item) {
+        if (!empty.tryAcquire()) return false;
+        mutex.acquireUninterruptibly();
+        try {
+            buffer.addLast(item);
+        } finally {
+            mutex.release();
+        }
+        full.release();
+        return true;
+    }
+    @Override
+    public SalesRecord poll() {
+        if (!full.tryAcquire()) return null;
+        mutex.acquireUninterruptibly();
+        SalesRecord item;
+        try {
+            item = buffer.removeFirst();
+        } finally {
+            mutex.release();
+        }
+        empty.release();
+        return item;
+    }
+    @Override
+    public boolean isEmpty() {
+        return full.availablePermits() == 0;
+    }
+    @Override
+    public boolean isFull() {
+        return empty.availablePermits() == 0;
+    }
+    @Override
+    public int size() {
+        return full.availablePermits();
+    }
+    // The putAll method moves a batch of records in as few critical sections as possible. It waits for one free slot, then takes every other free slot that is available without waiting (up to what the rest of the batch needs), adds that many records under a single mutex acquire and releases the full semaphore once for all of them.
+    @Override
+    public void putAll(SalesRecord[] batch, int count) throws InterruptedException {
+        int done = 0;
+        while (done < count) {
+            int n = acquireUpTo(empty, count - done);
+            mutex.acquire();
+            try {
+                for (int i = 0; i < n; i++) buffer.addLast(batch[done + i]);
+            } finally {
+                mutex.release();
+            }
+            full.release(n);
+            done += n;
+        }
+    }
+    // The drainTo method is the consumer side of putAll: it waits for one record, takes as many more as are already in the buffer (up to max), removes them all under one mutex acquire and releases the empty semaphore once.
+    @Override
+    public int drainTo(SalesRecord[] target, int max) throws InterruptedException {
+        int n = acquireUpTo(full, max);
+        mutex.acquire();
+        try {
+            for (int i = 0; i < n; i++) target[i] = buffer.removeFirst();
+        } finally {
+            mutex.release();
+        }
+        empty.release(n);
+        return n;
+    }
+    // Blocks for one permit and then grabs whatever further permits are free, up to max in total. Permits taken beyond max are handed straight back.
+    private static int acquireUpTo(Semaphore s, int max) throws InterruptedException {
+        s.acquire();
+        if (max == 1) return 1;
+        int n = 1 + s.drainPermits();
+        if (n > max) {
+            s.release(n - max);
+            n = max;
+        }
+        return n;
+    }
+}
@@ -0,0 +1,70 @@
+package PRODUCER_CONSUMER;
+import java.util.Arrays;
+
+// Open-addressing map from positive int keys to double sums, for totals keyed by store or by store, month and register. Key 0 marks an empty slot. The table is kept at most half full and doubles when it gets there, so a map only costs as much as the keys it has actually seen.
+class IntDoubleMap {
+    int[] keys;
+    double[] values;
+    private int size;
+
+    IntDoubleMap(int capacity) {
+        int n = Math.max(2, Integer.highestOneBit(capacity));
+        if (n < capacity) n <<= 1;
+        keys = new int[n];
+        values = new double[n];
+    }
+
+    void add(int key, double amount) {
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        while (keys[i] != 0 && keys[i] != key) i = (i + 1) & mask;
+        values[i] += amount;
+        if (keys[i] == 0) {
+            keys[i] = key;
+            if (++size * 2 > keys.length) rehash();
+        }
+    }
+
+    double get(int key) {
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        while (keys[i] != 0) {
+            if (keys[i] == key) return values[i];
+            i = (i + 1) & mask;
+        }
+        return 0;
+    }
+
+    int size() { return size; }
+
+    // The keys present, in ascending order.
+    int[] sortedKeys() {
+        int[] out = new int[size];
+        int n = 0;
+        for (int k : keys) if (k != 0) out[n++] = k;
+        Arrays.sort(out);
+        return out;
+    }
+
+    private static int slot(int key, int mask) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private void rehash() {
+        int[] oldKeys = keys;
+        double[] oldValues = values;
+        int[] newKeys = new int[oldKeys.length * 2];
+        double[] newValues = new double[oldKeys.length * 2];
+        int mask = newKeys.length - 1;
+        for (int k = 0; k < oldKeys.length; k++) {
+            if (oldKeys[k] == 0) continue;
+            int i = slot(oldKeys[k], mask);
+            while (newKeys[i] != 0) i = (i + 1) & mask;
+            newKeys[i] = oldKeys[k];
+            newValues[i] = oldValues[k];
+        }
+        values = newValues;
+        keys = newKeys;
+    }
+}
@@ -0,0 +1,147 @@
+package PRODUCER_CONSUMER;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// This class is the ring of RingBuffer with primitive slots, for the --record packed path. Each slot holds a packed record (see SalesRecord.pack) and the nanoTime it was made, in two long arrays, so putting and taking a record moves two longs and allocates nothing: no record object, no queue node and no poison pill object (the pill is SalesRecord.PACKED_POISON). Slot claiming, publishing, the padded head and tail counters, the back-off and the way a capacity that is not a power of two is enforced are the same as in RingBuffer. Consumers always drain, one record or many, because a single take would have to return two values. For streaming the ring can also be closed: once close() has been called and every record put before it has been drained, drainTo returns 0 instead of waiting, so consumers stop without a poison pill.
+public class PackedRingBuffer {
+    private static final int PAD = 16;
+    private static final int TAIL = PAD;
+    private static final int HEAD = 2 * PAD;
+
+    private final long[] records;
+    private final long[] stamps;
+    private final AtomicLongArray sequence;
+    private final AtomicLongArray counters = new AtomicLongArray(3 * PAD);
+    private final int mask;
+    private final int capacity;
+    private final boolean bounded;
+    private volatile boolean closed;
+
+    public PackedRingBuffer(int cap) {
+        if (cap <= 0 || cap > 1 << 30) throw new IllegalArgumentException("Capacity must be between 1 and 2^30");
+        int size = Math.max(2, Integer.highestOneBit(cap));
+        if (size < cap) size <<= 1;
+        records = new long[size];
+        stamps = new long[size];
+        sequence = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) sequence.set(i, i);
+        mask = size - 1;
+        capacity = cap;
+        bounded = cap < size;
+    }
+
+    public void put(long record, long created) throws InterruptedException {
+        int idle = 0;
+        while (!offer(record, created)) idle = RingBuffer.backOff(idle);
+    }
+
+    // Puts the record if there is a free slot, without waiting; returns false if the ring is full.
+    public boolean offer(long record, long created) {
+        while (true) {
+            long tail = counters.get(TAIL);
+            int slot = (int) tail & mask;
+            long seq = sequence.getAcquire(slot);
+            if (seq == tail) {
+                if (bounded && tail - counters.get(HEAD) >= capacity) return false;
+                if (counters.compareAndSet(TAIL, tail, tail + 1)) {
+                    records[slot] = record;
+                    stamps[slot] = created;
+                    sequence.setRelease(slot, tail + 1);
+                    return true;
+                }
+            } else if (seq < tail) {
+                return false;
+            }
+        }
+    }
+
+    // Puts the first count records of the batch, with their stamps, claiming consecutive slots with one CAS as RingBuffer.putAll does.
+    public void putAll(long[] batch, long[] created, int count) throws InterruptedException {
+        int done = 0;
+        int idle = 0;
+        while (done < count) {
+            long tail = counters.get(TAIL);
+            int want = Math.min(count - done, mask + 1);
+            if (bounded) want = (int) Math.min(want, capacity - (tail - counters.get(HEAD)));
+            int n = 0;
+            while (n < want && sequence.getAcquire((int) (tail + n) & mask) == tail + n) n++;
+            if (n == 0) {
+                if (want <= 0 || sequence.getAcquire((int) tail & mask) < tail) idle = RingBuffer.backOff(idle);
+                continue;
+            }
+            if (counters.compareAndSet(TAIL, tail, tail + n)) {
+                for (int i = 0; i < n; i++) {
+                    int slot = (int) (tail + i) & mask;
+                    records[slot] = batch[done + i];
+                    stamps[slot] = created[done + i];
+                    sequence.setRelease(slot, tail + i + 1);
+                }
+                done += n;
+                idle = 0;
+            }
+        }
+    }
+
+    // Blocks until at least one record is available, then moves up to max published records and their stamps into the two arrays and returns how many it moved. Returns 0 once the ring is closed and empty.
+    public int drainTo(long[] target, long[] created, int max) throws InterruptedException {
+        int idle = 0;
+        int n;
+        while ((n = poll(target, created, max)) == 0) {
+            if (closed && isEmpty()) return 0;
+            idle = RingBuffer.backOff(idle);
+        }
+        return n;
+    }
+
+    // drainTo without the waiting: returns 0 straight away if no record is available.
+    public int poll(long[] target, long[] created, int max) {
+        while (true) {
+            long head = counters.get(HEAD);
+            int want = Math.min(max, mask + 1);
+            int n = 0;
+            while (n < want && sequence.getAcquire((int) (head + n) & mask) == head + n + 1) n++;
+            if (n == 0) {
+                if (sequence.getAcquire((int) head & mask) < head + 1) return 0;
+                continue;
+            }
+            if (counters.compareAndSet(HEAD, head, head + n)) {
+                for (int i = 0; i < n; i++) {
+                    int slot = (int) (head + i) & mask;
+                    target[i] = records[slot];
+                    created[i] = stamps[slot];
+                    sequence.setRelease(slot, head + i + mask + 1);
+                }
+                return n;
+            }
+        }
+    }
+
+    // Tells consumers that nothing more will be put. Must only be called once every put has returned; records already in the ring are still drained.
+    public void close() {
+        closed = true;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public boolean isEmpty() {
+        long head = counters.get(HEAD);
+        return counters.get(TAIL) == head;
+    }
+
+    public boolean isFull() {
+        long head = counters.get(HEAD);
+        return counters.get(TAIL) - head >= capacity;
+    }
+
+    // The capacity asked for; the ring itself may have more slots, which are never used.
+    public int capacity() {
+        return capacity;
+    }
+
+    // Records claimed and not yet drained; a sample, like RecordBuffer.size().
+    public int size() {
+        long head = counters.get(HEAD);
+        return (int) Math.min(counters.get(TAIL) - head, capacity);
+    }
+}
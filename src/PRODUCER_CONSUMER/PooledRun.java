@@ -0,0 +1,183 @@
+package PRODUCER_CONSUMER;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// This class runs one simulation with --exec pool: the producers and consumers are tasks on a pool of 'workers' threads, so thousands of them do not need a thread each. A producer task makes one record, offers it, and schedules its next turn after its pause instead of sleeping. A task that finds the buffer full (or empty) parks itself on a wait queue and gives its thread back; the next consumer (or producer) that changes the buffer wakes one parked task. The calling thread still waits for the producers, sends the poison pills and waits for the consumers, just as with threads. The pool, its latches and its wait queues belong to the run, so nothing is left behind for the next one. The pool's threads only ever run these tasks, so what they allocated, read before they are shut down, is what the producers and consumers allocated.
+class PooledRun {
+    private static final int POOL_BURST = 256; // records a consumer task takes before letting other tasks have its thread
+
+    private final RecordBuffer buffer;
+    private final SalesAggregator totals;
+    private final int totalItems;
+    private final boolean producerSleep;
+    private final int workers;
+    private final AtomicInteger producedCount = new AtomicInteger();
+    private final ConcurrentLinkedQueue<PooledJob> waitingProducers = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<PooledJob> waitingConsumers = new ConcurrentLinkedQueue<>();
+    private ScheduledThreadPoolExecutor pool;
+    private CountDownLatch producersDone;
+    private CountDownLatch consumersDone;
+    private double createMs;
+
+    PooledRun(RecordBuffer buffer, SalesAggregator totals, int totalItems, boolean producerSleep, int workers) {
+        this.buffer = buffer;
+        this.totals = totals;
+        this.totalItems = totalItems;
+        this.producerSleep = producerSleep;
+        this.workers = workers;
+    }
+
+    // Runs p producers and c consumers to the end, adding what the pool's threads allocated to 'allocation'.
+    void run(int p, int c, AllocationMeter allocation) {
+        List<Thread> poolThreads = Collections.synchronizedList(new ArrayList<>());
+        pool = new ScheduledThreadPoolExecutor(workers, r -> {
+            Thread t = new Thread(r);
+            poolThreads.add(t);
+            return t;
+        });
+        producersDone = new CountDownLatch(p);
+        consumersDone = new CountDownLatch(c);
+
+        long createStart = System.nanoTime();
+        for (int i = 0; i < p; i++) pool.execute(new ProducerJob(i + 1));
+        for (int i = 0; i < c; i++) pool.execute(new ConsumerJob(i + 1));
+        createMs = (System.nanoTime() - createStart) / 1e6;
+
+        try {
+            producersDone.await();
+            for (int i = 0; i < c; i++) {
+                buffer.put(SalesRecord.POISON);
+                wake(waitingConsumers);
+            }
+            consumersDone.await();
+            synchronized (poolThreads) {
+                for (Thread t : poolThreads) allocation.countThread(t);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Time it took to hand every task to the pool, in milliseconds
+    double createMs() {
+        return createMs;
+    }
+
+    private void wake(ConcurrentLinkedQueue<PooledJob> queue) {
+        PooledJob job;
+        while ((job = queue.poll()) != null) {
+            if (job.parked.compareAndSet(true, false)) {
+                pool.execute(job);
+                return;
+            }
+        }
+    }
+
+    // A producer or consumer task. A task parks by setting its flag and joining a wait queue; a waker claims it by clearing the flag, so a task that sits in a queue more than once is still only rescheduled once. After joining the queue the task checks its condition again: the other side may have changed the buffer between the failed attempt and the park, and would then have found nobody to wake.
+    private abstract class PooledJob implements Runnable {
+        private final AtomicBoolean parked = new AtomicBoolean();
+
+        // Returns true if the task is now parked (or already rescheduled by a waker) and must return, false if it should try again straight away.
+        boolean park(ConcurrentLinkedQueue<PooledJob> queue) {
+            parked.set(true);
+            queue.add(this);
+            if (stillBlocked()) return true;
+            return !parked.compareAndSet(true, false);
+        }
+
+        abstract boolean stillBlocked();
+    }
+
+    private final class ProducerJob extends PooledJob {
+        private final int storeId;
+        private final Random rand = new Random();
+        private final ProducerWaits waits;
+        private SalesRecord pending; // made but not yet in the buffer
+        private long waitingSince;   // when the buffer was first found full for 'pending', 0 if it was not
+
+        ProducerJob(int storeId) {
+            this.storeId = storeId;
+            this.waits = totals.producer(storeId - 1);
+        }
+
+        @Override boolean stillBlocked() { return buffer.isFull(); }
+
+        // One record per turn: a producer that kept its thread for a burst would refill every slot the consumers free, and the producers woken for those slots would find the buffer full again every time.
+        @Override
+        public void run() {
+            while (pending == null) {
+                int curr = producedCount.get();
+                if (curr >= totalItems) {
+                    producersDone.countDown();
+                    return;
+                }
+                if (producedCount.compareAndSet(curr, curr + 1)) {
+                    int dd = 1 + rand.nextInt(30);
+                    int mm = 1 + rand.nextInt(12);
+                    int reg = 1 + rand.nextInt(6);
+                    double amt = 0.50 + rand.nextDouble() * 999.49;
+                    pending = new SalesRecord(dd, mm, storeId, reg, amt);
+                    pending.created = System.nanoTime();
+                }
+            }
+            while (!buffer.offer(pending)) {
+                if (waitingSince == 0) waitingSince = System.nanoTime();
+                if (park(waitingProducers)) return;
+            }
+            if (waitingSince != 0) {
+                waits.blocked(System.nanoTime() - waitingSince);
+                waitingSince = 0;
+            }
+            pending = null;
+            wake(waitingConsumers);
+            if (producerSleep) {
+                pool.schedule(this, 5 + rand.nextInt(36), TimeUnit.MILLISECONDS);
+            } else {
+                pool.execute(this);
+            }
+        }
+    }
+
+    private final class ConsumerJob extends PooledJob {
+        private final int consId;
+        private final SalesTally local;
+        private long waitingSince; // when the buffer was found empty, 0 while records are coming
+        private int polls;
+
+        ConsumerJob(int consId) {
+            this.consId = consId;
+            this.local = totals.stripe(consId - 1);
+        }
+
+        @Override boolean stillBlocked() { return buffer.isEmpty(); }
+
+        @Override
+        public void run() {
+            for (int n = 0; n < POOL_BURST; n++) {
+                if ((++polls & (ProducerConsumer.OCCUPANCY_SAMPLE - 1)) == 0) local.occupancy(buffer.size());
+                SalesRecord rec = buffer.poll();
+                if (rec == null) {
+                    if (waitingSince == 0) waitingSince = System.nanoTime();
+                    if (park(waitingConsumers)) return;
+                    continue;
+                }
+                if (waitingSince != 0) {
+                    local.blocked(System.nanoTime() - waitingSince);
+                    waitingSince = 0;
+                }
+                wake(waitingProducers);
+                if (rec.isPoison) {
+                    ProducerConsumer.finishConsumer(consId, local);
+                    consumersDone.countDown();
+                    return;
+                }
+                local.add(rec, System.nanoTime());
+            }
+            pool.execute(this);
+        }
+    }
+}
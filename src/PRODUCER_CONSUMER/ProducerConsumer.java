@@ -1,160 +1,723 @@
 package PRODUCER_CONSUMER;
-import java.io.FileOutputStream;
-import java.io.PrintStream;
+import java.io.*;
+import java.lang.reflect.Method;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import STATS.PeakMemory;
 
-
-// This class implements the producer-consumer problem using a bounded buffer. It simulates multiple producer threads that generate sales records and multiple consumer threads that process those records. The producers create SalesRecord objects with random data and put them into a shared BoundedBuffer, while the consumers take SalesRecord objects from the buffer, aggregate sales data, and print local statistics. After all producers have finished producing, the main thread sends poison pills to signal the consumers to stop consuming. Finally, it prints global statistics summarizing the total sales for each store, each month, and the overall aggregate sales, along with the total time taken for the simulation.
+// This class is the command line of the producer-consumer simulator and runs its fixed-size simulations. main() reads the flags and runs one simulation for every combination of buffer kind, batch size, buffer capacity, producer count and consumer count, each writing its report to output_<run>.txt and a one-line summary to the console. In a simulation every producer stands for one store and makes random sales records until the run's item count is reached, and every consumer adds the records it takes to its own stripe of a SalesAggregator. Records go through a RecordBuffer (the semaphore BoundedBuffer, the lock-free RingBuffer or an ArrayBlockingQueue) or, with --record packed, as single longs through a PackedRingBuffer. With platform or virtual threads (runThreads) each producer and consumer has a thread of its own; when the producers are done, the calling thread puts one poison pill per consumer into the buffer and waits for the consumers. With --exec pool, PooledRun runs them as tasks on a small pool of threads instead, and ends them the same way. The streaming mode, which reads records from a file or standard input until told to stop and needs no poison pill, is StreamRun. Every run ends with the global totals, the latency, blocked-time and occupancy percentiles, the peak memory and the bytes allocated per record. The settings from the command line stay in static fields for the whole process; the buffer, totals and counters of the simulation being run are reset at its start.
 public class ProducerConsumer {
-    private static final int TOTAL_ITEMS = 1000;
-    private static BoundedBuffer buffer;
+    private static int totalItems = 1000;
+    private static boolean producerSleep = true;
+    private static int batchSize = 1;
+    private static long batchTimeoutNanos = 10_000_000L;
+    private static RecordBuffer buffer;
+    private static int bufferCapacity;
     private static final AtomicInteger producedCount = new AtomicInteger(0);
-    private static double globalAggregate = 0.0;
-    private static final double[] globalStoreSales = new double[11]; // 1-10
-    private static final double[] globalMonthSales = new double[12];
+    private static SalesAggregator totals;   // running totals, one stripe per consumer, readable while the run is going
+    private static SalesSnapshot lastTotals; // the totals at the end of the last run
+    private static long liveIntervalMs;      // --live: how often to print the running totals, 0 for never
+    private static String metricsFile;       // --metrics: file the metrics are appended to as JSON lines, null for none
+    private static long metricsIntervalMs = 1000;
+    static final int OCCUPANCY_SAMPLE = 16; // a consumer samples the buffer's occupancy once every this many takes (a power of two)
+    private static PrintStream console = System.out;
     private static long simStart;
+    private static double lastElapsedSec;
+
+    // Execution mode: "platform" starts one platform thread per producer and consumer (the original behaviour), "virtual" does the same with virtual threads, and "pool" runs producers and consumers as tasks on a fixed pool of 'workers' threads.
+    private static String exec = "platform";
+    private static int workers = Runtime.getRuntime().availableProcessors();
+    private static Object virtualBuilder;    // Thread.ofVirtual(), looked up by reflection so the code still builds and runs on JDKs without virtual threads
+    private static Method virtualUnstarted;  // Thread.Builder.unstarted(Runnable)
+    private static double lastCreateMs;
+    private static long lastPeakMb;
+    private static String lastFailure;
+
+    // Record path: "object" passes SalesRecord objects through a RecordBuffer, "packed" passes each sale as one long (see SalesRecord.pack) through a PackedRingBuffer and allocates nothing per record.
+    private static boolean packed = false;
+    private static PackedRingBuffer packedBuffer;
+
+    private static AllocationMeter allocation; // bytes the producer and consumer threads of the current run allocated
 
     public static void main(String[] args) {
         int[] ps = {2, 5, 10};
         int[] cs = {2, 5, 10};
-        int b = 10;
+        int[] bs = {10};
+
+        // Optional flags: --buffer picks the buffer implementation (semaphore, ring or abq, or all to run every one in turn), --items sets how many records are produced per run, --batch gives one or more producer batch sizes to run (records are put one at a time at 1), --batch-timeout sets how long in milliseconds a producer may hold a partial batch, --no-sleep drops the producers' pause after each put so the buffer itself is what limits throughput, -p, -c and -b replace the lists of producer, consumer and buffer sizes, --exec picks platform threads, virtual threads or a task pool, --workers sets the pool size, --record packed switches to the allocation-free packed record path, --live prints the running totals to the console every so many milliseconds, --metrics appends the run's counters and latency, blocked-time and occupancy percentiles to a file as a line of JSON every --metrics-interval milliseconds and once more at the end, --stream reads an endless stream of records from a file or standard input instead of generating a fixed number (with --overflow choosing what happens when the buffer is full), and --write-stream writes --items random records in the stream format to a file.
+        List<String> kinds = Collections.singletonList("semaphore");
+        boolean kindGiven = false;
+        boolean cGiven = false;
+        boolean bGiven = false;
+        String streamSource = null;
+        String overflow = "block";
+        String writeStream = null;
+        int[] batches = {1};
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--buffer") && i + 1 < args.length) {
+                kindGiven = true;
+                String k = args[++i].toLowerCase();
+                kinds = k.equals("all") ? Arrays.asList(RecordBuffer.KINDS.split("\\|")) : Collections.singletonList(k);
+                if (RecordBuffer.create(kinds.get(0), 1) == null) {
+                    System.out.println("Invalid buffer. Use " + RecordBuffer.KINDS.replace("|", ", ") + " or all.");
+                    return;
+                }
+            } else if (args[i].equals("--items") && i + 1 < args.length) {
+                try {
+                    totalItems = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException e) {
+                    totalItems = -1;
+                }
+                if (totalItems <= 0) {
+                    System.out.println("Invalid number of items. Use a positive number.");
+                    return;
+                }
+            } else if (args[i].equals("--batch") && i + 1 < args.length) {
+                batches = parseList(args[++i]);
+                if (batches == null) {
+                    System.out.println("Invalid batch size. Use positive numbers separated by commas.");
+                    return;
+                }
+            } else if (args[i].equals("--batch-timeout") && i + 1 < args.length) {
+                long ms;
+                try {
+                    ms = Long.parseLong(args[++i]);
+                } catch (NumberFormatException e) {
+                    ms = -1;
+                }
+                if (ms < 0) {
+                    System.out.println("Invalid batch timeout. Use a number of milliseconds.");
+                    return;
+                }
+                batchTimeoutNanos = ms * 1_000_000L;
+            } else if (args[i].equals("--no-sleep")) {
+                producerSleep = false;
+            } else if ((args[i].equals("-p") || args[i].equals("-c") || args[i].equals("-b")) && i + 1 < args.length) {
+                int[] values = parseList(args[i + 1]);
+                if (values == null) {
+                    System.out.println("Invalid value for " + args[i] + ". Use positive numbers separated by commas.");
+                    return;
+                }
+                if (args[i].equals("-p")) ps = values;
+                else if (args[i].equals("-c")) { cs = values; cGiven = true; }
+                else { bs = values; bGiven = true; }
+                i++;
+            } else if (args[i].equals("--exec") && i + 1 < args.length) {
+                exec = args[++i].toLowerCase();
+                if (!exec.equals("platform") && !exec.equals("virtual") && !exec.equals("pool")) {
+                    System.out.println("Invalid execution mode. Use platform, virtual or pool.");
+                    return;
+                }
+            } else if (args[i].equals("--workers") && i + 1 < args.length) {
+                int[] values = parseList(args[++i]);
+                if (values == null) {
+                    System.out.println("Invalid number of workers. Use a positive number.");
+                    return;
+                }
+                workers = values[0];
+            } else if (args[i].equals("--record") && i + 1 < args.length) {
+                String r = args[++i].toLowerCase();
+                if (!r.equals("object") && !r.equals("packed")) {
+                    System.out.println("Invalid record path. Use object or packed.");
+                    return;
+                }
+                packed = r.equals("packed");
+            } else if (args[i].equals("--live") && i + 1 < args.length) {
+                int[] values = parseList(args[++i]);
+                if (values == null) {
+                    System.out.println("Invalid live interval. Use a positive number of milliseconds.");
+                    return;
+                }
+                liveIntervalMs = values[0];
+            } else if (args[i].equals("--metrics") && i + 1 < args.length) {
+                metricsFile = args[++i];
+            } else if (args[i].equals("--metrics-interval") && i + 1 < args.length) {
+                int[] values = parseList(args[++i]);
+                if (values == null) {
+                    System.out.println("Invalid metrics interval. Use a positive number of milliseconds.");
+                    return;
+                }
+                metricsIntervalMs = values[0];
+            } else if (args[i].equals("--stream") && i + 1 < args.length) {
+                streamSource = args[++i];
+            } else if (args[i].equals("--overflow") && i + 1 < args.length) {
+                overflow = args[++i].toLowerCase();
+                if (!Arrays.asList(SalesStreamReader.POLICIES.split("\\|")).contains(overflow)) {
+                    System.out.println("Invalid overflow policy. Use " + SalesStreamReader.POLICIES.replace("|", ", ") + ".");
+                    return;
+                }
+            } else if (args[i].equals("--write-stream") && i + 1 < args.length) {
+                writeStream = args[++i];
+            } else {
+                System.out.println("Unknown option: " + args[i]);
+                return;
+            }
+        }
 
+        if (writeStream != null) {
+            StreamRun.writeFile(writeStream, totalItems, ps[0]);
+            return;
+        }
+
+        if (exec.equals("virtual") && !initVirtualThreads()) {
+            System.out.println("Virtual threads need JDK 21 or later; using --exec pool instead.");
+            exec = "pool";
+        }
+        if (exec.equals("pool")) {
+            for (int batch : batches) {
+                if (batch > 1) {
+                    System.out.println("--exec pool puts records one at a time; --batch needs platform or virtual threads.");
+                    return;
+                }
+            }
+        }
         for (int p : ps) {
-            for (int c : cs) {
-                String runName = "p" + p + "_c" + c + "_b" + b;
-                String outputFile = "output_" + runName + ".txt";
+            if (p > SalesTally.MAX_STORE) {
+                System.out.println("At most " + SalesTally.MAX_STORE + " producers (stores) are supported.");
+                return;
+            }
+        }
+        if (packed) {
+            // Packed records only go through the primitive ring, which has no non-blocking single-record calls for the pool's tasks
+            if (kindGiven && !kinds.equals(Collections.singletonList("ring"))) {
+                System.out.println("--record packed always uses a ring of primitive slots; leave out --buffer or use --buffer ring.");
+                return;
+            }
+            if (exec.equals("pool")) {
+                System.out.println("--record packed needs platform or virtual threads.");
+                return;
+            }
+            for (int p : ps) {
+                if (p > SalesRecord.MAX_PACKED_STORE) {
+                    System.out.println("--record packed supports up to " + SalesRecord.MAX_PACKED_STORE + " producers (stores).");
+                    return;
+                }
+            }
+            kinds = Collections.singletonList("ring");
+        }
+
+        console = System.out;
+        if (streamSource != null) {
+            if (exec.equals("pool") || (kindGiven && !kinds.equals(Collections.singletonList("ring"))) || (cGiven && cs.length > 1) || (bGiven && bs.length > 1)) {
+                System.out.println("--stream runs once, on platform or virtual threads, with one -c and one -b value; records go through a ring of primitive slots.");
+                return;
+            }
+            new StreamRun(streamSource, overflow, cGiven ? cs[0] : 2, bGiven ? bs[0] : 1 << 16).run();
+            return;
+        }
+        int runs = 0;
+        for (String kind : kinds) {
+            for (int batch : batches) {
+                batchSize = batch;
+                for (int b : bs) {
+                    for (int p : ps) {
+                        for (int c : cs) {
+                            String runName = "p" + p + "_c" + c + "_b" + b + (kind.equals("semaphore") ? "" : "_" + kind) + (packed ? "_packed" : "") + (batch > 1 ? "_batch" + batch : "") + (exec.equals("platform") ? "" : "_" + exec);
+                            String outputFile = "output_" + runName + ".txt";
 
-                try (PrintStream out = new PrintStream(new FileOutputStream(outputFile))) {
-                    System.setOut(out);
-                    System.out.println("=== RUN " + runName + " ===");
-                    runOneSimulation(p, c, b);
-                    System.out.println("=== END OF RUN " + runName + " ===\n");
-                } catch (Exception e) {
-                    System.err.println("Error writing " + outputFile);
+                            try (PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(outputFile), 1 << 16))) {
+                                System.setOut(out);
+                                System.out.println("=== RUN " + runName + " ===");
+                                runOneSimulation(p, c, b, kind, runName);
+                                System.out.println("=== END OF RUN " + runName + " ===\n");
+                            } catch (Exception e) {
+                                System.err.println("Error writing " + outputFile);
+                            } finally {
+                                System.setOut(console);
+                            }
+                            if (lastFailure != null) {
+                                console.println(runName + ": FAILED, " + lastFailure);
+                            } else {
+                                console.println(runName + ": " + totalItems + " records in " + String.format("%.3f", lastElapsedSec) + " s (" + String.format("%.0f", totalItems / Math.max(lastElapsedSec, 0.001)) + " records/sec), latency avg " + String.format("%.3f", lastTotals.averageLatencyMs()) + " ms, p99 " + String.format("%.3f", lastTotals.latency.valueAt(99) / 1e6) + " ms, max " + String.format("%.3f", lastTotals.maxLatencyNanos / 1e6) + " ms, " + (exec.equals("pool") ? "task setup " : "thread creation ") + String.format("%.1f", lastCreateMs) + " ms, peak memory " + lastPeakMb + " MB" + (allocation.unknown() ? "" : ", allocated " + String.format("%.1f", bytesPerRecord()) + " bytes/record"));
+                            }
+                            runs++;
+                        }
+                    }
                 }
             }
         }
 
-        System.out.println("All 9 runs completed. Check the output_*.txt files.");
+        System.out.println("All " + runs + " runs completed. Check the output_*.txt files.");
     }
-    // This method runs a single simulation of the producer-consumer problem with the specified number of producers (p), consumers (c), and buffer capacity (b). It initializes the shared buffer, starts the producer and consumer threads, and waits for them to finish. After all threads have completed their work, it prints the global statistics, including total sales for each store, total sales for each month, aggregate sales, and total time taken for the simulation.
-    private static void runOneSimulation(int p, int c, int b) {
+    // This method runs a single simulation of the producer-consumer problem with the specified number of producers (p), consumers (c), buffer capacity (b) and buffer implementation (kind). It initializes the shared buffer, starts the producer and consumer threads, and waits for them to finish. After all threads have completed their work, it prints the global statistics, including total sales for each store, total sales for each month, aggregate sales, and total time taken for the simulation.
+    private static void runOneSimulation(int p, int c, int b, String kind, String runName) {
+        boolean peakReset = PeakMemory.reset();
         simStart = System.currentTimeMillis();
-        buffer = new BoundedBuffer(b);
+        buffer = packed ? null : RecordBuffer.create(kind, b);
+        packedBuffer = packed ? new PackedRingBuffer(b) : null;
+        bufferCapacity = b;
         producedCount.set(0);
-        Arrays.fill(globalStoreSales, 0);
-        Arrays.fill(globalMonthSales, 0);
-        globalAggregate = 0;
+        totals = new SalesAggregator(p, c);
+        lastFailure = null;
+        allocation = new AllocationMeter();
 
-        // Start producers (1 thread per store)
-        Thread[] producers = new Thread[p];
-        for (int i = 0; i < p; i++) {
-            int storeId = i + 1;
-            producers[i] = new Thread(() -> producerTask(storeId));
-            producers[i].start();
+        Thread monitor = startLiveMonitor(totals);
+        Thread dump = startMetricsDump(runName, totals);
+        long started = System.nanoTime();
+        if (exec.equals("pool")) {
+            PooledRun run = new PooledRun(buffer, totals, totalItems, producerSleep, workers);
+            run.run(p, c, allocation);
+            lastCreateMs = run.createMs();
+        } else {
+            runThreads(p, c);
+        }
+        stopDaemon(monitor);
+        stopDaemon(dump);
+        lastTotals = totals.snapshot();
+        writeMetrics(runName, lastTotals, (System.nanoTime() - started) / 1e9, true);
+        lastPeakMb = PeakMemory.mb();
+        if (lastFailure != null) {
+            System.out.println("Run failed: " + lastFailure);
+            return;
         }
 
-        // Start consumers (1 thread per consumer)
+        double elapsedSec = (System.currentTimeMillis() - simStart) / 1000.0;
+        lastElapsedSec = elapsedSec;
+        int[] stores = new int[p];
+        for (int s = 0; s < p; s++) stores[s] = s + 1;
+        printGlobalStats(stores, lastTotals, elapsedSec);
+        System.out.println((exec.equals("pool") ? "Task setup time: " : "Thread creation time: ") + String.format("%.1f", lastCreateMs) + " ms, peak memory" + (peakReset ? "" : " (whole JVM lifetime)") + ": " + lastPeakMb + " MB");
+        if (!allocation.unknown()) {
+            System.out.println("Allocated by producers and consumers: " + allocation.bytes() + " bytes, " + String.format("%.1f", bytesPerRecord()) + " bytes/record");
+        }
+    }
+    // This method runs the producers and consumers on threads, one per producer and one per consumer, either platform threads or virtual threads depending on the execution mode. Each thread adds what it allocated to the run's AllocationMeter when its task ends. If the system refuses to start another thread, the threads already running are interrupted and the run is reported as failed instead of hanging.
+    private static void runThreads(int p, int c) {
+        long createStart = System.nanoTime();
+        Thread[] producers = new Thread[p];
         Thread[] consumers = new Thread[c];
-        for (int i = 0; i < c; i++) {
-            int consId = i + 1;
-            consumers[i] = new Thread(() -> consumerTask(consId, p));
-            consumers[i].start();
+        int started = 0;
+        try {
+            // Start producers (1 thread per store)
+            for (int i = 0; i < p; i++) {
+                int storeId = i + 1;
+                producers[i] = newThread(() -> {
+                    long since = AllocationMeter.threadBytes();
+                    if (packed) packedProducerTask(storeId);
+                    else producerTask(storeId);
+                    allocation.countSince(since);
+                });
+                producers[i].start();
+                started++;
+            }
+
+            // Start consumers (1 thread per consumer)
+            for (int i = 0; i < c; i++) {
+                int consId = i + 1;
+                consumers[i] = newThread(() -> {
+                    long since = AllocationMeter.threadBytes();
+                    if (packed) packedConsumerTask(consId, packedBuffer, totals.stripe(consId - 1), Math.max(batchSize, bufferCapacity));
+                    else consumerTask(consId);
+                    allocation.countSince(since);
+                });
+                consumers[i].start();
+                started++;
+            }
+        } catch (OutOfMemoryError e) {
+            lastFailure = "could not start thread " + (started + 1) + " of " + (p + c) + " (" + e.getMessage() + ")";
+            for (Thread t : producers) if (t != null) t.interrupt();
+            for (Thread t : consumers) if (t != null) t.interrupt();
+            for (Thread t : producers) joinQuietly(t);
+            for (Thread t : consumers) joinQuietly(t);
+            return;
         }
+        lastCreateMs = (System.nanoTime() - createStart) / 1e6;
 
         // Wait for all producers to finish
-        for (Thread t : producers) {
-            try { t.join(); } catch (InterruptedException ignored) {}
-        }
+        for (Thread t : producers) joinQuietly(t);
 
         // Designated thread (main) sets flag + poison pills to signal consumers to stop
         for (int i = 0; i < c; i++) {
             try {
-                buffer.put(new SalesRecord()); // poison
+                if (packed) packedBuffer.put(SalesRecord.PACKED_POISON, 0);
+                else buffer.put(SalesRecord.POISON);
             } catch (InterruptedException ignored) {}
         }
 
         // Wait for consumers to finish
-        for (Thread t : consumers) {
-            try { t.join(); } catch (InterruptedException ignored) {}
+        for (Thread t : consumers) joinQuietly(t);
+    }
+
+    static void joinQuietly(Thread t) {
+        if (t == null) return;
+        try { t.join(); } catch (InterruptedException ignored) {}
+    }
+
+    // A new, unstarted thread for a producer or consumer: a virtual thread with --exec virtual, a platform thread otherwise.
+    static Thread newThread(Runnable task) {
+        if (exec.equals("virtual")) {
+            try {
+                return (Thread) virtualUnstarted.invoke(virtualBuilder, task);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Could not create a virtual thread", e);
+            }
         }
+        return new Thread(task);
+    }
 
-        double elapsedSec = (System.currentTimeMillis() - simStart) / 1000.0;
-        printGlobalStats(p, elapsedSec);
+    // Looks up Thread.ofVirtual() and Thread.Builder.unstarted(Runnable) and tries them once. This fails on JDKs before 21 (or 19 and 20 without --enable-preview), and the caller then falls back to the pool.
+    private static boolean initVirtualThreads() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Method unstarted = Class.forName("java.lang.Thread$Builder").getMethod("unstarted", Runnable.class);
+            unstarted.invoke(builder, (Runnable) () -> {});
+            virtualBuilder = builder;
+            virtualUnstarted = unstarted;
+            return true;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return false;
+        }
     }
-    // This method represents the task that each producer thread will execute. It continuously generates SalesRecord items with random data until it has produced a total of 1000 items across all producers. Each SalesRecord includes a date, store ID, month, register number, and sales amount. The producer then puts each generated SalesRecord into the shared BoundedBuffer and sleeps for a random short duration to simulate time taken to produce an item. The use of an AtomicInteger ensures that the total count of produced items is accurately tracked across multiple producer threads
+    // This method represents the task that each producer thread will execute. It continuously generates SalesRecord items with random data until it has produced a total of totalItems items (1000 by default) across all producers. Each SalesRecord includes a date, store ID, month, register number, and sales amount. The producer then puts each generated SalesRecord into the shared buffer and, unless --no-sleep was given, sleeps for a random short duration to simulate time taken to produce an item. With a batch size above one the producer collects records locally and hands them over with putAll when the batch is full or its oldest record has waited batchTimeoutNanos, and whatever is left is flushed when production ends. The use of an AtomicInteger ensures that the total count of produced items is accurately tracked across multiple producer threads
     private static void producerTask(int storeId) { // storeId is 1-based
         Random rand = new Random();
-        while (true) {
-            if (producedCount.get() >= TOTAL_ITEMS) break;
-            int curr = producedCount.get();
-            if (producedCount.compareAndSet(curr, curr + 1)) {
-                int dd = 1 + rand.nextInt(30); // day 1-30
-                int mm = 1 + rand.nextInt(12); // month 1-12
-                int reg = 1 + rand.nextInt(6);  // register 1-6
-                double amt = 0.50 + rand.nextDouble() * 999.49;
-                SalesRecord rec = new SalesRecord(dd, mm, storeId, reg, amt);
-                try {
-                    buffer.put(rec);
-                    Thread.sleep(5 + rand.nextInt(36));
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    return;
+        ProducerWaits waits = totals.producer(storeId - 1);
+        SalesRecord[] batch = batchSize > 1 ? new SalesRecord[batchSize] : null;
+        int pending = 0;
+        long batchStart = 0;
+        try {
+            while (true) {
+                if (producedCount.get() >= totalItems) break;
+                int curr = producedCount.get();
+                if (producedCount.compareAndSet(curr, curr + 1)) {
+                    int dd = 1 + rand.nextInt(30); // day 1-30
+                    int mm = 1 + rand.nextInt(12); // month 1-12
+                    int reg = 1 + rand.nextInt(6);  // register 1-6
+                    double amt = 0.50 + rand.nextDouble() * 999.49;
+                    SalesRecord rec = new SalesRecord(dd, mm, storeId, reg, amt);
+                    rec.created = System.nanoTime();
+                    if (batch == null) {
+                        put(rec, waits);
+                    } else {
+                        if (pending == 0) batchStart = rec.created;
+                        batch[pending++] = rec;
+                        if (pending == batchSize || rec.created - batchStart >= batchTimeoutNanos) {
+                            putAll(batch, pending, waits);
+                            pending = 0;
+                        }
+                    }
+                    if (producerSleep) {
+                        long pause = 5 + rand.nextInt(36);
+                        // Flush before the pause rather than after it when the pause would hold the oldest record past the timeout
+                        if (pending > 0 && System.nanoTime() + pause * 1_000_000L - batchStart >= batchTimeoutNanos) {
+                            putAll(batch, pending, waits);
+                            pending = 0;
+                        }
+                        Thread.sleep(pause);
+                    }
                 }
             }
+            if (pending > 0) putAll(batch, pending, waits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
-    // This method represents the task that each consumer thread will execute. It continuously takes SalesRecord items from the buffer until it encounters a poison pill, which signals it to stop consuming. The consumer maintains local aggregates for total sales, month-wise sales, and store-wise sales. After finishing consumption, it updates the global aggregates in a synchronized block to ensure thread safety. Finally, it prints its local statistics, which reflect the total sales amount processed by this consumer, the breakdown of sales by month, and the breakdown of sales by store.
-    private static void consumerTask(int consId, int maxP) {
+
+    // Puts one record, timing the put only if the buffer is full. An offer that succeeds costs the same as a put that does not wait, so a producer that never waits pays nothing for the measurement.
+    private static void put(SalesRecord rec, ProducerWaits waits) throws InterruptedException {
+        if (buffer.offer(rec)) return;
+        long t = System.nanoTime();
+        buffer.put(rec);
+        waits.blocked(System.nanoTime() - t);
+    }
+
+    // Puts a batch, timing it only if the buffer did not have room for all of it when the producer looked.
+    private static void putAll(SalesRecord[] batch, int n, ProducerWaits waits) throws InterruptedException {
+        if (bufferCapacity - buffer.size() >= n) {
+            buffer.putAll(batch, n);
+            return;
+        }
+        long t = System.nanoTime();
+        buffer.putAll(batch, n);
+        waits.blocked(System.nanoTime() - t);
+    }
+    // This method represents the task that each consumer thread will execute. It continuously takes SalesRecord items from the buffer until it encounters a poison pill, which signals it to stop consuming. The consumer adds every record to its own stripe of the run's totals, which keeps sales per store, month and register and needs no lock, since no other thread writes to it. Finally, it prints its local statistics, which reflect the total sales amount processed by this consumer, the breakdown of sales by month, and the breakdown of sales by store.
+    private static void consumerTask(int consId) {
         Random rand = new Random(); // not used but kept for possible extension
-        double locAggregate = 0.0;
-        double[] locMonth = new double[12]; // month-wise local totals
-        double[] locStore = new double[maxP + 1]; // store-wise local totals (1-based index for convenience)
+        SalesTally local = totals.stripe(consId - 1);
 
-        while (true) {
-            SalesRecord rec;
-            try {
-                rec = buffer.take();
-            } catch (InterruptedException e) {
-                break;
+        int takes = 0;
+        if (batchSize == 1) {
+            while (true) {
+                if ((++takes & (OCCUPANCY_SAMPLE - 1)) == 0) local.occupancy(buffer.size());
+                SalesRecord rec = buffer.poll();
+                if (rec == null) {
+                    // Empty: only now is the wait worth timing
+                    long t = System.nanoTime();
+                    try {
+                        rec = buffer.take();
+                    } catch (InterruptedException e) {
+                        break;
+                    }
+                    local.blocked(System.nanoTime() - t);
+                }
+                if (rec.isPoison) break;
+                local.add(rec, System.nanoTime());
             }
-            if (rec.isPoison) break;
+        } else {
+            // Drain greedily: take everything that is in the buffer, up to the larger of the batch size and the buffer capacity
+            SalesRecord[] drained = new SalesRecord[Math.max(batchSize, bufferCapacity)];
+            boolean stop = false;
+            while (!stop) {
+                int n;
+                if ((++takes & (OCCUPANCY_SAMPLE - 1)) == 0) local.occupancy(buffer.size());
+                boolean empty = buffer.isEmpty();
+                long t = empty ? System.nanoTime() : 0;
+                try {
+                    n = buffer.drainTo(drained, drained.length);
+                } catch (InterruptedException e) {
+                    break;
+                }
+                long now = System.nanoTime();
+                if (empty) local.blocked(now - t);
+                int pills = 0;
+                for (int i = 0; i < n; i++) {
+                    SalesRecord rec = drained[i];
+                    drained[i] = null;
+                    if (rec.isPoison) {
+                        pills++;
+                        continue;
+                    }
+                    local.add(rec, now);
+                }
+                // A drain can pick up several poison pills at once; keep one and put the rest back for the other consumers
+                for (int i = 1; i < pills; i++) {
+                    try {
+                        buffer.put(SalesRecord.POISON);
+                    } catch (InterruptedException e) {
+                        break;
+                    }
+                }
+                stop = pills > 0;
+            }
+        }
 
-            locAggregate += rec.amount;
-            locMonth[rec.month - 1] += rec.amount;  // month from date parse not needed since we store it directly
-            locStore[rec.storeId] += rec.amount;
+        finishConsumer(consId, local);
+    }
+    // This method is producerTask for the packed record path. The sale is packed into a long with the amount in whole cents, and the record and its creation time go into the packed ring as two primitives, one at a time or in batches exactly as producerTask does it, so producing a record allocates nothing.
+    private static void packedProducerTask(int storeId) {
+        Random rand = new Random();
+        ProducerWaits waits = totals.producer(storeId - 1);
+        long[] batch = batchSize > 1 ? new long[batchSize] : null;
+        long[] stamps = batchSize > 1 ? new long[batchSize] : null;
+        int pending = 0;
+        try {
+            while (true) {
+                if (producedCount.get() >= totalItems) break;
+                int curr = producedCount.get();
+                if (producedCount.compareAndSet(curr, curr + 1)) {
+                    int dd = 1 + rand.nextInt(30);
+                    int mm = 1 + rand.nextInt(12);
+                    int reg = 1 + rand.nextInt(6);
+                    int cents = 50 + rand.nextInt(99950); // $0.50 - $999.99
+                    long rec = SalesRecord.pack(dd, mm, storeId, reg, cents);
+                    long created = System.nanoTime();
+                    if (batch == null) {
+                        if (!packedBuffer.offer(rec, created)) {
+                            long t = System.nanoTime();
+                            packedBuffer.put(rec, created);
+                            waits.blocked(System.nanoTime() - t);
+                        }
+                    } else {
+                        batch[pending] = rec;
+                        stamps[pending++] = created;
+                        if (pending == batchSize || created - stamps[0] >= batchTimeoutNanos) {
+                            packedPutAll(batch, stamps, pending, waits);
+                            pending = 0;
+                        }
+                    }
+                    if (producerSleep) {
+                        long pause = 5 + rand.nextInt(36);
+                        if (pending > 0 && System.nanoTime() + pause * 1_000_000L - stamps[0] >= batchTimeoutNanos) {
+                            packedPutAll(batch, stamps, pending, waits);
+                            pending = 0;
+                        }
+                        Thread.sleep(pause);
+                    }
+                }
+            }
+            if (pending > 0) packedPutAll(batch, stamps, pending, waits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
+    }
 
-        // Add local to global (synchronized)
-        synchronized (ProducerConsumer.class) {
-            globalAggregate += locAggregate;
-            for (int m = 0; m < 12; m++) globalMonthSales[m] += locMonth[m];
-            for (int s = 1; s <= maxP; s++) globalStoreSales[s] += locStore[s];
+    private static void packedPutAll(long[] batch, long[] stamps, int n, ProducerWaits waits) throws InterruptedException {
+        if (packedBuffer.capacity() - packedBuffer.size() >= n) {
+            packedBuffer.putAll(batch, stamps, n);
+            return;
         }
+        long t = System.nanoTime();
+        packedBuffer.putAll(batch, stamps, n);
+        waits.blocked(System.nanoTime() - t);
+    }
+    // This method is consumerTask for the packed record path, for the threaded runs and for StreamRun, so the ring, the consumer's stripe and how many records one drain may take are passed in. It always drains greedily into two preallocated arrays, records and creation times, and unpacks each record straight into its tally; the date is never rendered because nothing here prints it. It stops at a poison pill, or, in streaming mode, when the ring has been closed and drained.
+    static void packedConsumerTask(int consId, PackedRingBuffer ring, SalesTally local, int drain) {
+        long[] drained = new long[drain];
+        long[] stamps = new long[drained.length];
+        boolean stop = false;
+        int drains = 0;
+        while (!stop) {
+            if ((++drains & (OCCUPANCY_SAMPLE - 1)) == 0) local.occupancy(ring.size());
+            int n = ring.poll(drained, stamps, drained.length);
+            if (n == 0) {
+                long t = System.nanoTime();
+                try {
+                    n = ring.drainTo(drained, stamps, drained.length);
+                } catch (InterruptedException e) {
+                    break;
+                }
+                if (n == 0) break; // the ring was closed and is empty: the end of a stream
+                local.blocked(System.nanoTime() - t);
+            }
+            long now = System.nanoTime();
+            int pills = 0;
+            for (int i = 0; i < n; i++) {
+                if (drained[i] == SalesRecord.PACKED_POISON) {
+                    pills++;
+                    continue;
+                }
+                local.addPacked(drained[i], stamps[i], now);
+            }
+            for (int i = 1; i < pills; i++) {
+                try {
+                    ring.put(SalesRecord.PACKED_POISON, 0);
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+            stop = pills > 0;
+        }
+
+        finishConsumer(consId, local);
+    }
+    // This method is the end of every consumer, whichever way it ran. Its records are already in the run's totals, so all that is left is to print its local statistics: the total sales amount this consumer processed, the breakdown by month and the breakdown by store.
+    static void finishConsumer(int consId, SalesTally stripe) {
+        SalesSnapshot local = stripe.snapshot();
 
-        // Print local stats
-        System.out.println("Consumer " + consId + " local statistics:"); // This is printed after the consumer finishes consuming all its items, which includes the poison pill. So it reflects the total local stats for that consumer.
-        System.out.println("  Total sales: $" + String.format("%.2f", locAggregate)); //  This is the total sales amount that this consumer processed. It is calculated by summing up the amounts of all SalesRecord items that this consumer took from the buffer and processed before it encountered the poison pill.
-        System.out.print("  Month-wise: ");
-        for (int m = 0; m < 12; m++) if (locMonth[m] > 0) System.out.print("M" + (m+1) + ":$" + String.format("%.2f ", locMonth[m]));
-        System.out.println();
-        System.out.print("  Store-wide local: "); // This is the total sales amount that this consumer processed for each store. It is calculated by summing up the amounts of all SalesRecord items that this consumer took from the buffer and processed, grouped by storeId, before it encountered the poison pill.
-        for (int s = 1; s <= maxP; s++) if (locStore[s] > 0) System.out.print("S" + s + ":$" + String.format("%.2f ", locStore[s])); // This prints the local store-wise totals for this consumer, showing how much sales amount this consumer processed for each store. It iterates through the locStore array, which holds the local totals for each store, and prints the store number and the corresponding total if it is greater than 0.
-        System.out.println("\n");
+        // Print local stats, as one block so consumers finishing together do not interleave
+        StringBuilder sb = new StringBuilder();
+        sb.append("Consumer ").append(consId).append(" local statistics:\n"); // This is printed after the consumer finishes consuming all its items, which includes the poison pill. So it reflects the total local stats for that consumer.
+        sb.append("  Total sales: $").append(String.format("%.2f", local.total)).append('\n'); //  This is the total sales amount that this consumer processed. It is calculated by summing up the amounts of all SalesRecord items that this consumer took from the buffer and processed before it encountered the poison pill.
+        sb.append("  Month-wise: ");
+        for (int m = 0; m < 12; m++) if (local.month[m] > 0) sb.append("M").append(m + 1).append(":$").append(String.format("%.2f ", local.month[m]));
+        sb.append('\n');
+        sb.append("  Store-wide local: "); // This is the total sales amount that this consumer processed for each store. It is calculated by summing up the amounts of all SalesRecord items that this consumer took from the buffer and processed, grouped by storeId, before it encountered the poison pill.
+        for (int s : local.stores()) sb.append("S").append(s).append(":$").append(String.format("%.2f ", local.storeSales(s))); // This prints the local store-wise totals for this consumer in store order, showing how much sales amount this consumer processed for each store it saw.
+        sb.append('\n');
+        System.out.println(sb);
     }
-    // This method prints the global statistics after all producers and consumers have finished their work. It shows the total sales for each store, the total sales for each month across all stores, the aggregate sales amount, and the total time taken for the simulation. The statistics are formatted to two decimal places for better readability.
-    private static void printGlobalStats(int p, double elapsedSec) {
+    // This method prints the global statistics after all producers and consumers have finished their work. It shows, from the run's final snapshot, the total sales for each of the given stores, the total sales for each month and for each register across all stores, the aggregate sales amount, and the total time taken for the simulation. The statistics are formatted to two decimal places for better readability.
+    static void printGlobalStats(int[] stores, SalesSnapshot g, double elapsedSec) {
         System.out.println("=== GLOBAL STATISTICS ===");
         System.out.println("Store-wide total sales:");
-        for (int s = 1; s <= p; s++) {
-            System.out.println("  Store " + s + ": $" + String.format("%.2f", globalStoreSales[s]));
+        for (int s : stores) {
+            System.out.println("  Store " + s + ": $" + String.format("%.2f", g.storeSales(s)));
         }
         System.out.println("Month-wise total sales (all stores):");
         for (int m = 1; m <= 12; m++) {
-            System.out.println("  Month " + m + ": $" + String.format("%.2f", globalMonthSales[m-1]));
+            System.out.println("  Month " + m + ": $" + String.format("%.2f", g.month[m-1]));
+        }
+        System.out.println("Register-wise total sales (all stores):");
+        for (int r = 1; r < g.register.length; r++) {
+            if (g.register[r] != 0) System.out.println("  Register " + r + ": $" + String.format("%.2f", g.register[r]));
         }
-        System.out.println("Aggregate sales (all sales together): $" + String.format("%.2f", globalAggregate));
+        System.out.println("Aggregate sales (all sales together): $" + String.format("%.2f", g.total));
         System.out.println("Total time for simulation: " + String.format("%.2f", elapsedSec) + " seconds");
+        System.out.println("Records consumed: " + g.count + ", latency from production to consumption: avg " + String.format("%.3f", g.averageLatencyMs()) + " ms, max " + String.format("%.3f", g.maxLatencyNanos / 1e6) + " ms");
+        System.out.println("Latency percentiles (ms): " + g.latency.summary(1e6, "%.3f"));
+        System.out.println("Consumers waited on an empty buffer " + g.takeBlocked.count() + " times (ms): " + g.takeBlocked.summary(1e6, "%.3f"));
+        System.out.println("Producers waited on a full buffer " + g.putBlocked.count() + " times (ms): " + g.putBlocked.summary(1e6, "%.3f"));
+        System.out.println("Buffer occupancy, " + g.occupancy.count() + " samples (records): " + g.occupancy.summary(1, "%.0f"));
+    }
+
+    // Starts a daemon thread that prints a snapshot of the running totals to the console every liveIntervalMs until it is interrupted, or returns null without --live. The snapshot is taken while the consumers keep going, so this is also what a monitoring endpoint would call.
+    static Thread startLiveMonitor(SalesAggregator totals) {
+        if (liveIntervalMs == 0) return null;
+        Thread t = new Thread(() -> {
+            long start = System.nanoTime();
+            try {
+                while (true) {
+                    Thread.sleep(liveIntervalMs);
+                    SalesSnapshot now = totals.snapshot();
+                    double sec = (System.nanoTime() - start) / 1e9;
+                    int busiest = 0;
+                    for (int m = 1; m < 12; m++) if (now.month[m] > now.month[busiest]) busiest = m;
+                    console.println(String.format("  live %.1f s: %d records (%.0f/sec), sales $%.2f, busiest month M%d $%.2f, latency avg %.3f ms, p99 %.3f ms",
+                        sec, now.count, now.count / sec, now.total, busiest + 1, now.month[busiest], now.averageLatencyMs(), now.latency.valueAt(99) / 1e6));
+                }
+            } catch (InterruptedException ignored) {}
+        }, "live-totals");
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+
+    // Starts a daemon thread that appends a snapshot of the run's metrics to metricsFile every metricsIntervalMs until it is interrupted, or returns null without --metrics; the final line of a run is written by the caller once the consumers are done.
+    static Thread startMetricsDump(String runName, SalesAggregator totals) {
+        if (metricsFile == null) return null;
+        Thread t = new Thread(() -> {
+            long start = System.nanoTime();
+            try {
+                while (true) {
+                    Thread.sleep(metricsIntervalMs);
+                    writeMetrics(runName, totals.snapshot(), (System.nanoTime() - start) / 1e9, false);
+                }
+            } catch (InterruptedException ignored) {}
+        }, "metrics-dump");
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+
+    // Stops a thread started by startLiveMonitor or startMetricsDump, if there is one.
+    static void stopDaemon(Thread t) {
+        if (t == null) return;
+        t.interrupt();
+        joinQuietly(t);
+    }
+
+    // Appends one line of JSON: the run, whether it is the run's last line, the record count and rate, the sales total, and the histograms of latency, consumer and producer waits (in milliseconds) and of buffer occupancy (in records). Does nothing without --metrics.
+    static void writeMetrics(String runName, SalesSnapshot s, double sec, boolean last) {
+        if (metricsFile == null) return;
+        StringBuilder sb = new StringBuilder(512);
+        sb.append("{\"run\": \"").append(runName).append("\", \"final\": ").append(last);
+        sb.append(", \"elapsed_s\": ").append(String.format(Locale.ROOT, "%.3f", sec));
+        sb.append(", \"records\": ").append(s.count);
+        sb.append(", \"records_per_sec\": ").append(String.format(Locale.ROOT, "%.0f", s.count / Math.max(sec, 0.001)));
+        sb.append(", \"sales\": ").append(String.format(Locale.ROOT, "%.2f", s.total));
+        sb.append(", \"latency_ms\": ");
+        s.latency.appendJson(sb, 1e6);
+        sb.append(", \"take_blocked_ms\": ");
+        s.takeBlocked.appendJson(sb, 1e6);
+        sb.append(", \"put_blocked_ms\": ");
+        s.putBlocked.appendJson(sb, 1e6);
+        sb.append(", \"occupancy\": ");
+        s.occupancy.appendJson(sb, 1);
+        sb.append('}');
+        try (Writer w = new FileWriter(metricsFile, true)) {
+            w.write(sb.append('\n').toString());
+        } catch (IOException e) {
+            console.println("Error writing " + metricsFile + ": " + e.getMessage());
+        }
+    }
+
+    private static double bytesPerRecord() {
+        return (double) allocation.bytes() / totalItems;
+    }
+
+    // Parses a comma-separated list of positive numbers, returning null if any entry is not one.
+    private static int[] parseList(String v) {
+        String[] parts = v.split(",");
+        int[] out = new int[parts.length];
+        for (int k = 0; k < parts.length; k++) {
+            try {
+                out[k] = Integer.parseInt(parts[k].trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            if (out[k] <= 0) return null;
+        }
+        return out;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,16 @@
+package PRODUCER_CONSUMER;
+import STATS.Histogram;
+
+// This class records how long one producer waited for a free slot in a full buffer (on the semaphore buffer, on its 'empty' semaphore). A producer only records here when it actually had to wait, which costs far more than an uncontended lock, so unlike SalesTally it simply locks; the histogram is made on the first wait, so the many producers of the pool mode that never wait cost one small object each.
+class ProducerWaits {
+    private Histogram blocked;
+
+    synchronized void blocked(long nanos) {
+        if (blocked == null) blocked = new Histogram();
+        blocked.record(nanos);
+    }
+
+    synchronized void copyInto(SalesSnapshot into) {
+        if (blocked != null) into.putBlocked.add(blocked);
+    }
+}
@@ -0,0 +1,38 @@
+package PRODUCER_CONSUMER;
+
+// This interface is the shared buffer between producers and consumers. It lets ProducerConsumer run the same simulation over different buffer implementations so they can be compared: the original semaphore-guarded list, a lock-free ring, and the JDK's ArrayBlockingQueue. put blocks while the buffer is full and take blocks while it is empty. putAll and drainTo move whole batches, so the cost of synchronizing is paid once per batch instead of once per record.
+public interface RecordBuffer {
+    String KINDS = "semaphore|ring|abq";
+
+    void put(SalesRecord item) throws InterruptedException;
+
+    SalesRecord take() throws InterruptedException;
+
+    // Non-blocking forms of put and take: offer returns false when the buffer is full and poll returns null when it is empty. They let the pooled execution mode run producers and consumers as tasks that give their worker thread back instead of blocking it.
+    boolean offer(SalesRecord item);
+
+    SalesRecord poll();
+
+    boolean isEmpty();
+
+    boolean isFull();
+
+    // How many records the buffer holds right now. Other threads may change it at any moment, so it is only a sample, which is what the occupancy histogram needs.
+    int size();
+
+    // Puts the first 'count' records of 'batch' in order, moving as many as there is room for at a time, and returns once all of them are in the buffer.
+    void putAll(SalesRecord[] batch, int count) throws InterruptedException;
+
+    // Waits until the buffer holds at least one record, then moves up to 'max' records into 'target' in one step and returns how many it moved.
+    int drainTo(SalesRecord[] target, int max) throws InterruptedException;
+
+    // Returns the buffer of the given kind ("semaphore", "ring" or "abq"), or null for an unknown kind.
+    static RecordBuffer create(String kind, int capacity) {
+        switch (kind.toLowerCase()) {
+            case "semaphore": return new BoundedBuffer(capacity);
+            case "ring": return new RingBuffer(capacity);
+            case "abq": return new BlockingQueueBuffer(capacity);
+            default: return null;
+        }
+    }
+}
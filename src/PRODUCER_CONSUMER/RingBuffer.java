@@ -0,0 +1,171 @@
+package PRODUCER_CONSUMER;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+// This class is a lock-free bounded buffer for many producers and many consumers, built on a preallocated ring whose size is the capacity rounded up to a power of two (and to at least two). Every slot carries a sequence number that says whose turn it is. A producer claims the slot at the tail by moving the tail counter forward with a CAS, stores the record and then advances the slot's sequence, which publishes the record to consumers. A consumer claims the slot at the head the same way, takes the record and advances the sequence by one lap, which hands the slot back to producers. No operation takes a lock or allocates a node, and producers and consumers only contend with each other through the slot they are both looking at. The head and tail counters live in one array with two cache lines of padding around each, so a producer moving the tail does not invalidate the line a consumer is reading the head from. A thread that finds the ring full (or empty) spins briefly, then yields, and then parks for a growing interval until the slot turns over; on a single CPU it skips the spinning, since nothing can change while it spins. When the capacity is not a power of two the spare slots stay unused: a producer also checks that fewer than 'capacity' records are claimed and not yet taken, so -b 10 holds ten records, as the other buffers do. That check reads the head counter that consumers write, so a power-of-two capacity, which needs no check, is the fastest.
+public class RingBuffer implements RecordBuffer {
+    private static final int PAD = 16;  // longs between counters: 128 bytes, two cache lines
+    private static final int TAIL = PAD;
+    private static final int HEAD = 2 * PAD;
+    private static final int SPINS = Runtime.getRuntime().availableProcessors() > 1 ? 256 : 0;
+    private static final int YIELDS = 16;
+    private static final long MIN_PARK_NANOS = 1_000;
+    private static final long MAX_PARK_NANOS = 1_000_000;
+
+    private final SalesRecord[] items;
+    private final AtomicLongArray sequence;  // per slot: equal to a position when producers may fill it, position + 1 once it holds a record
+    private final AtomicLongArray counters = new AtomicLongArray(3 * PAD);
+    private final int mask;
+    private final int capacity;
+    private final boolean bounded; // capacity < ring size: producers must also check the record count
+
+    public RingBuffer(int cap) {
+        if (cap <= 0 || cap > 1 << 30) throw new IllegalArgumentException("Capacity must be between 1 and 2^30");
+        // At least two slots: with one, a slot holding a record and a slot free for the next lap would have the same sequence
+        int size = Math.max(2, Integer.highestOneBit(cap));
+        if (size < cap) size <<= 1;
+        items = new SalesRecord[size];
+        sequence = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) sequence.set(i, i);
+        mask = size - 1;
+        capacity = cap;
+        bounded = cap < size;
+    }
+
+    @Override
+    public void put(SalesRecord item) throws InterruptedException {
+        int idle = 0;
+        while (!offer(item)) idle = backOff(idle);
+    }
+
+    @Override
+    public SalesRecord take() throws InterruptedException {
+        int idle = 0;
+        SalesRecord item;
+        while ((item = poll()) == null) idle = backOff(idle);
+        return item;
+    }
+
+    @Override
+    public boolean offer(SalesRecord item) {
+        while (true) {
+            long tail = counters.get(TAIL);
+            int slot = (int) tail & mask;
+            long seq = sequence.getAcquire(slot);
+            if (seq == tail) {
+                if (bounded && tail - counters.get(HEAD) >= capacity) return false;
+                if (counters.compareAndSet(TAIL, tail, tail + 1)) {
+                    items[slot] = item;
+                    sequence.setRelease(slot, tail + 1);
+                    return true;
+                }
+            } else if (seq < tail) {
+                return false; // full: the slot still holds a record from the previous lap
+            }
+            // otherwise another producer claimed this position first; read the tail again
+        }
+    }
+
+    @Override
+    public SalesRecord poll() {
+        while (true) {
+            long head = counters.get(HEAD);
+            int slot = (int) head & mask;
+            long seq = sequence.getAcquire(slot);
+            if (seq == head + 1) {
+                if (counters.compareAndSet(HEAD, head, head + 1)) {
+                    SalesRecord item = items[slot];
+                    items[slot] = null;
+                    sequence.setRelease(slot, head + mask + 1);
+                    return item;
+                }
+            } else if (seq < head + 1) {
+                return null; // empty: no producer has published this position yet
+            }
+        }
+    }
+
+    // Both read the claimed positions rather than the slot sequences, so a record that a producer has claimed but not yet published already counts. The head is read first: it never passes the tail, so equal values mean the ring really was empty when the tail was read.
+    @Override
+    public boolean isEmpty() {
+        long head = counters.get(HEAD);
+        return counters.get(TAIL) == head;
+    }
+
+    @Override
+    public boolean isFull() {
+        long head = counters.get(HEAD);
+        return counters.get(TAIL) - head >= capacity;
+    }
+
+    @Override
+    public int size() {
+        long head = counters.get(HEAD);
+        return (int) Math.min(counters.get(TAIL) - head, capacity);
+    }
+
+    // Claims as many consecutive free slots as the rest of the batch needs with a single CAS on the tail, then fills and publishes them one by one.
+    @Override
+    public void putAll(SalesRecord[] batch, int count) throws InterruptedException {
+        int done = 0;
+        int idle = 0;
+        while (done < count) {
+            long tail = counters.get(TAIL);
+            int want = Math.min(count - done, mask + 1);
+            if (bounded) want = (int) Math.min(want, capacity - (tail - counters.get(HEAD)));
+            int n = 0;
+            while (n < want && sequence.getAcquire((int) (tail + n) & mask) == tail + n) n++;
+            if (n == 0) {
+                if (want <= 0 || sequence.getAcquire((int) tail & mask) < tail) idle = backOff(idle);
+                continue;
+            }
+            if (counters.compareAndSet(TAIL, tail, tail + n)) {
+                for (int i = 0; i < n; i++) {
+                    int slot = (int) (tail + i) & mask;
+                    items[slot] = batch[done + i];
+                    sequence.setRelease(slot, tail + i + 1);
+                }
+                done += n;
+                idle = 0;
+            }
+        }
+    }
+
+    // Claims every consecutive published slot at the head, up to max, with a single CAS, then empties them and hands them back to producers.
+    @Override
+    public int drainTo(SalesRecord[] target, int max) throws InterruptedException {
+        int idle = 0;
+        while (true) {
+            long head = counters.get(HEAD);
+            int want = Math.min(max, mask + 1);
+            int n = 0;
+            while (n < want && sequence.getAcquire((int) (head + n) & mask) == head + n + 1) n++;
+            if (n == 0) {
+                if (sequence.getAcquire((int) head & mask) < head + 1) idle = backOff(idle);
+                continue;
+            }
+            if (counters.compareAndSet(HEAD, head, head + n)) {
+                for (int i = 0; i < n; i++) {
+                    int slot = (int) (head + i) & mask;
+                    target[i] = items[slot];
+                    items[slot] = null;
+                    sequence.setRelease(slot, head + i + mask + 1);
+                }
+                return n;
+            }
+        }
+    }
+
+    // Waits a little longer each time it is called: spins, then yields, then parks for a doubling interval capped at a millisecond. PackedRingBuffer waits the same way.
+    static int backOff(int idle) throws InterruptedException {
+        if (Thread.interrupted()) throw new InterruptedException();
+        if (idle < SPINS) {
+            Thread.onSpinWait();
+        } else if (idle < SPINS + YIELDS) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(Math.min(MAX_PARK_NANOS, MIN_PARK_NANOS << Math.min(idle - SPINS - YIELDS, 20)));
+        }
+        return idle + 1;
+    }
+}
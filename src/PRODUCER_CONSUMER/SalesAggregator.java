@@ -0,0 +1,31 @@
+package PRODUCER_CONSUMER;
+
+// This class holds the running sales totals of a run. Like java.util.concurrent.atomic.DoubleAdder it spreads the updates over separate cells and only combines them when someone reads, but here every consumer gets a stripe of its own (a SalesTally), so consumers never contend with each other at all. snapshot() can be called at any time, while the consumers are still running: it copies each stripe as it was between two of that consumer's records and adds the copies up. The stripes are copied one after another, so a record consumed while the snapshot is being taken may or may not be in it, but never half of one, and the rollups by store, month and register always agree with the total. The producers' waits for room in the buffer are kept next to the stripes, one ProducerWaits per producer, and go into the same snapshot.
+class SalesAggregator {
+    private final SalesTally[] stripes;
+    private final ProducerWaits[] producers;
+
+    SalesAggregator(int producers, int consumers) {
+        stripes = new SalesTally[consumers];
+        for (int i = 0; i < consumers; i++) stripes[i] = new SalesTally();
+        this.producers = new ProducerWaits[producers];
+        for (int i = 0; i < producers; i++) this.producers[i] = new ProducerWaits();
+    }
+
+    // The stripe of consumer i (0-based); only that consumer may add to it.
+    SalesTally stripe(int i) {
+        return stripes[i];
+    }
+
+    // The waits of producer i (0-based).
+    ProducerWaits producer(int i) {
+        return producers[i];
+    }
+
+    SalesSnapshot snapshot() {
+        SalesSnapshot s = new SalesSnapshot();
+        for (SalesTally t : stripes) t.copyInto(s);
+        for (ProducerWaits w : producers) w.copyInto(s);
+        return s;
+    }
+}
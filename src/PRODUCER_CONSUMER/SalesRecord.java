@@ -1,16 +1,19 @@
 package PRODUCER_CONSUMER;
 public class SalesRecord {
-    String date;
+    int day;
     int storeId;
     int month;
     int register;
     double amount;
     boolean isPoison = false;
+    long created; // System.nanoTime() when the producer made the record, for the latency report
 
+    // The one poison pill every run shares. A pill carries no data, so there is no need to allocate a new one per consumer.
+    static final SalesRecord POISON = new SalesRecord();
 
-    // This constructor initializes a SalesRecord with the provided date, store ID, month, register number, and sales amount. The date is formatted as "dd/MM/16" using the day and month values. The storeId represents the identifier for the store where the sale occurred, month indicates the month of the sale, register is the register number at which the sale was made, and amount is the total sales amount for that record.
+    // This constructor initializes a SalesRecord with the provided day, store ID, month, register number, and sales amount. The date itself is not built here: nothing on the hot path reads it, so date() formats it as "dd/MM/16" only when it is actually printed. The storeId represents the identifier for the store where the sale occurred, month indicates the month of the sale, register is the register number at which the sale was made, and amount is the total sales amount for that record.
     public SalesRecord(int dd, int mm, int store, int reg, double amt) {
-        this.date = String.format("%02d/%02d/16", dd, mm);
+        this.day = dd;
         this.storeId = store;
         this.month = mm;
         this.register = reg;
@@ -18,4 +21,33 @@ public class SalesRecord {
     }
     // This constructor creates a SalesRecord that serves as a poison pill. The isPoison flag is set to true, which allows consumer threads to recognize this record as a signal to stop consuming further records from the buffer. This is a common technique in producer-consumer scenarios to gracefully shut down consumer threads after all producers have finished producing items.
     public SalesRecord() { this.isPoison = true; } // poison pill: This ensures that the consumer can detect when to stop consuming without needing a separate flag or condition.
-}
\ No newline at end of file
+
+    // The sale date as "dd/MM/16", built on demand.
+    public String date() {
+        return formatDate(day, month);
+    }
+
+    // Packed form of a record, used by the --record packed path: the whole sale fits in one long, so producers and consumers pass primitives through a PackedRingBuffer and never allocate a record. From the low bits up: the amount in cents (32 bits), the register (4 bits), the month (4 bits), the day (5 bits) and the store id (18 bits). The top bit is never set by pack(), so a negative value can serve as the poison pill.
+    static final long PACKED_POISON = -1L;
+    static final int MAX_PACKED_STORE = (1 << 18) - 1;
+
+    static long pack(int dd, int mm, int store, int reg, int cents) {
+        return (long) store << 45 | (long) dd << 40 | (long) mm << 36 | (long) reg << 32 | (cents & 0xFFFFFFFFL);
+    }
+
+    static int packedCents(long rec) { return (int) rec; }
+    static int packedRegister(long rec) { return (int) (rec >>> 32) & 0xF; }
+    static int packedMonth(long rec) { return (int) (rec >>> 36) & 0xF; }
+    static int packedDay(long rec) { return (int) (rec >>> 40) & 0x1F; }
+    static int packedStore(long rec) { return (int) (rec >>> 45); }
+
+    static String packedDate(long rec) {
+        return formatDate(packedDay(rec), packedMonth(rec));
+    }
+
+    // Same output as String.format("%02d/%02d/16", dd, mm), without parsing a format string for every call.
+    private static String formatDate(int dd, int mm) {
+        char[] c = {(char) ('0' + dd / 10), (char) ('0' + dd % 10), '/', (char) ('0' + mm / 10), (char) ('0' + mm % 10), '/', '1', '6'};
+        return new String(c);
+    }
+}
@@ -0,0 +1,53 @@
+package PRODUCER_CONSUMER;
+import STATS.Histogram;
+
+// A copy of the sales totals of one or more stripes, taken by SalesTally.snapshot() or SalesAggregator.snapshot(). It keeps the totals per store, month and register and rolls them up by store, by month and by register as the stripes are added, so the rollups always add up to the same total. It also carries the merged histograms: record latency, time consumers waited on an empty buffer, time producers waited on a full one, and buffer occupancy. Nothing in it changes after it has been handed out.
+class SalesSnapshot {
+    double total;
+    final double[] month = new double[12];
+    final double[] register = new double[8];  // indexed by register number
+    long count;
+    double latencyNanos;  // a sum: a long would overflow on a long-running stream with a backlog
+    long maxLatencyNanos;
+    final Histogram latency = new Histogram();       // production to consumption, ns
+    final Histogram takeBlocked = new Histogram();   // consumers waiting for a record, ns
+    final Histogram putBlocked = new Histogram();    // producers waiting for a free slot, ns
+    final Histogram occupancy = new Histogram();     // records in the buffer, sampled by the consumers
+
+    private final IntDoubleMap cells = new IntDoubleMap(16);
+    private final IntDoubleMap stores = new IntDoubleMap(16);
+
+    // Adds one stripe's copied cell table and counters.
+    void add(int[] keys, double[] values, long n, double latency, long maxLatency) {
+        for (int i = 0; i < keys.length; i++) {
+            int k = keys[i];
+            if (k == 0) continue;
+            double v = values[i];
+            cells.add(k, v);
+            stores.add(SalesTally.storeOf(k), v);
+            month[SalesTally.monthOf(k) - 1] += v;
+            register[SalesTally.registerOf(k)] += v;
+            total += v;
+        }
+        count += n;
+        latencyNanos += latency;
+        maxLatencyNanos = Math.max(maxLatencyNanos, maxLatency);
+    }
+
+    // Ids of the stores with sales, in ascending order.
+    int[] stores() {
+        return stores.sortedKeys();
+    }
+
+    double storeSales(int store) {
+        return stores.get(store);
+    }
+
+    double sales(int store, int month, int register) {
+        return cells.get(SalesTally.key(store, month, register));
+    }
+
+    double averageLatencyMs() {
+        return count == 0 ? 0 : latencyNanos / 1e6 / count;
+    }
+}
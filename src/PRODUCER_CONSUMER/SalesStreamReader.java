@@ -0,0 +1,253 @@
+package PRODUCER_CONSUMER;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+
+// This class is the producer of the streaming mode: it reads sales records from a file or standard input and puts them into a PackedRingBuffer until the input ends or stop() is called, and then closes the ring. Each input line is one sale, "dd/MM/yy,store,register,amount" (for example "05/03/16,2,4,123.45"); blank lines and lines starting with '#' are skipped and lines that do not parse are counted and dropped. The input is read in 64 KB chunks and parsed byte by byte straight into packed longs, without building a String per line, which is what lets one reader keep up with millions of records per second. When the ring is full the overflow policy decides what happens: "block" waits for the consumers (the waits are recorded like a producer's), "drop-oldest" throws away the oldest record in the ring to make room, and "spill" appends the record to a file on disk and replays the file into the ring, in order, as room appears. When the input ends or stop() is called, the reader first replays anything still in the spill file and then closes the ring, and the consumers stop as soon as they have drained it, so no poison pill is needed. The reader is the only thread that closes the ring, so nothing can be put after the close. The input is read through its FileChannel because a read on a channel, unlike one on a FileInputStream, returns when the channel is closed by another thread: abandonInput() uses that to free a reader that was stopped while it waits for input that is not coming (a quiet pipe on standard input), and the reader then finishes the normal way.
+class SalesStreamReader implements Runnable {
+    static final String POLICIES = "block|drop-oldest|spill";
+    private static final int CHUNK = 1 << 16;
+    private static final int BATCH = 1024;
+
+    private final FileInputStream in;   // for available(); reads go through its channel
+    private final FileChannel channel;
+    private final PackedRingBuffer ring;
+    private final String policy;
+    private final SpillFile spill;
+    private final ProducerWaits waits;
+    private volatile boolean stopping;
+    private volatile boolean finished;
+    private volatile boolean waitingForInput;
+    private volatile String failure;
+
+    // Counters, written by the reader thread and read once it has finished
+    long lines;
+    long accepted;
+    long rejected;
+    long dropped;
+
+    private final long[] batch = new long[BATCH];
+    private final long[] stamps = new long[BATCH];
+    private final long[] victim = new long[1];
+    private final long[] victimStamp = new long[1];
+    private int pending;
+
+    SalesStreamReader(FileInputStream in, PackedRingBuffer ring, String policy, ProducerWaits waits) throws IOException {
+        this.in = in;
+        this.channel = in.getChannel();
+        this.ring = ring;
+        this.policy = policy;
+        this.waits = waits;
+        this.spill = policy.equals("spill") ? new SpillFile() : null;
+    }
+
+    // The close signal: stop reading, hand over what has been read, and close the ring.
+    void stop() {
+        stopping = true;
+    }
+
+    boolean isStopping() { return stopping; }
+
+    boolean isFinished() { return finished; }
+
+    // True while the reader is inside a read of the input, the one place it can wait indefinitely
+    boolean isWaitingForInput() { return waitingForInput; }
+
+    String failure() { return failure; }
+
+    // Closes the input under a reader that has been stopped and is blocked reading it. The read returns, the reader hands over what it has already read and closes the ring as usual. Anything still unread in the input is lost, which is what stopping means.
+    void abandonInput() {
+        try {
+            channel.close();
+        } catch (IOException ignored) {}
+    }
+
+    long spilled() { return spill == null ? 0 : spill.spilled; }
+
+    long maxSpillBacklog() { return spill == null ? 0 : spill.maxBacklog; }
+
+    @Override
+    public void run() {
+        byte[] buf = new byte[CHUNK];
+        ByteBuffer view = ByteBuffer.wrap(buf);
+        int start = 0;
+        int end = 0;
+        boolean skipping = false; // inside a line too long for the buffer
+        try {
+            while (!stopping) {
+                if (start == end) {
+                    start = end = 0;
+                } else if (start > 0) {
+                    System.arraycopy(buf, start, buf, 0, end - start);
+                    end -= start;
+                    start = 0;
+                }
+                if (end == buf.length) {
+                    // No line end in a whole buffer: drop the line
+                    if (!skipping) {
+                        rejected++;
+                        lines++;
+                    }
+                    skipping = true;
+                    end = 0;
+                }
+                // Before blocking on the input, use the pause to replay spilled records
+                if (spill != null && !spill.isEmpty() && in.available() == 0) replaySpill(true, true);
+                waitingForInput = true;
+                view.limit(buf.length).position(end);
+                int n;
+                try {
+                    n = channel.read(view);
+                } catch (ClosedChannelException e) {
+                    if (!stopping) throw e;
+                    n = -1; // abandonInput() after stop(): hand over and close as if the input had ended
+                }
+                waitingForInput = false;
+                if (n < 0) break;
+                if (n == 0) continue;
+                end += n;
+
+                int i = start;
+                while (i < end) {
+                    if (buf[i] != '\n') {
+                        i++;
+                        continue;
+                    }
+                    if (skipping) {
+                        skipping = false;
+                    } else {
+                        line(buf, start, i);
+                    }
+                    start = ++i;
+                }
+                flush();
+            }
+            // Input ended (a last line without a newline still counts) or the stream was stopped
+            if (!stopping && start < end && !skipping) line(buf, start, end);
+            flush();
+            if (spill != null) replaySpill(true, false);
+        } catch (IOException e) {
+            failure = "reading the input failed: " + e.getMessage();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            finished = true;
+            ring.close();
+            if (spill != null) {
+                try { spill.close(); } catch (IOException ignored) {}
+            }
+        }
+    }
+
+    private void line(byte[] b, int from, int to) throws IOException, InterruptedException {
+        if (to > from && b[to - 1] == '\r') to--;
+        if (to == from || b[from] == '#') return;
+        lines++;
+        long rec = parse(b, from, to);
+        if (rec < 0) {
+            rejected++;
+            return;
+        }
+        batch[pending] = rec;
+        stamps[pending++] = System.nanoTime();
+        if (pending == BATCH) flush();
+    }
+
+    // Hands the parsed records to the ring according to the overflow policy.
+    private void flush() throws IOException, InterruptedException {
+        if (pending == 0) return;
+        if (policy.equals("block")) {
+            if (ring.capacity() - ring.size() >= pending) {
+                ring.putAll(batch, stamps, pending);
+            } else {
+                long t = System.nanoTime();
+                ring.putAll(batch, stamps, pending);
+                waits.blocked(System.nanoTime() - t);
+            }
+        } else if (policy.equals("drop-oldest")) {
+            for (int i = 0; i < pending; i++) {
+                while (!ring.offer(batch[i], stamps[i])) {
+                    if (ring.poll(victim, victimStamp, 1) == 1) dropped++;
+                }
+            }
+        } else {
+            replaySpill(false, false);
+            for (int i = 0; i < pending; i++) {
+                // Once anything is on disk, later records queue behind it so the order is kept
+                if (!spill.isEmpty() || !ring.offer(batch[i], stamps[i])) spill.append(batch[i], stamps[i]);
+            }
+            replaySpill(false, false);
+        }
+        accepted += pending;
+        pending = 0;
+    }
+
+    // Moves spilled records back into the ring, oldest first. Without 'wait' it stops at the first full slot. With 'wait' it empties the spill file, waiting for the consumers to make room, unless 'yieldToInput' is set and new input arrives, which is read first.
+    private void replaySpill(boolean wait, boolean yieldToInput) throws IOException, InterruptedException {
+        int idle = 0;
+        while (!spill.isEmpty()) {
+            if (ring.offer(spill.peekRecord(), spill.peekStamp())) {
+                spill.skip();
+                idle = 0;
+            } else if (wait && !(yieldToInput && in.available() > 0)) {
+                idle = RingBuffer.backOff(idle);
+            } else {
+                return;
+            }
+        }
+    }
+
+    // Parses "dd/MM/yy,store,register,amount" into a packed record, or returns -1 if the line is not a valid sale.
+    static long parse(byte[] b, int from, int to) {
+        int i = from;
+        int dd = 0, mm = 0, digits = 0;
+        for (; i < to && b[i] != '/'; i++, digits++) {
+            int d = b[i] - '0';
+            if (d < 0 || d > 9 || digits == 2) return -1;
+            dd = dd * 10 + d;
+        }
+        if (digits == 0 || ++i >= to) return -1;
+        for (digits = 0; i < to && b[i] != '/'; i++, digits++) {
+            int d = b[i] - '0';
+            if (d < 0 || d > 9 || digits == 2) return -1;
+            mm = mm * 10 + d;
+        }
+        if (digits == 0 || dd < 1 || dd > 31 || mm < 1 || mm > 12) return -1;
+        while (i < to && b[i] != ',') i++; // the year is not kept
+        i++;
+        long store = 0;
+        for (digits = 0; i < to && b[i] != ','; i++, digits++) {
+            int d = b[i] - '0';
+            if (d < 0 || d > 9 || digits == 7) return -1;
+            store = store * 10 + d;
+        }
+        if (digits == 0 || store < 1 || store > SalesRecord.MAX_PACKED_STORE || i++ >= to) return -1;
+        int reg = 0;
+        for (digits = 0; i < to && b[i] != ','; i++, digits++) {
+            int d = b[i] - '0';
+            if (d < 0 || d > 9 || digits == 1) return -1;
+            reg = d;
+        }
+        if (digits == 0 || reg < 1 || reg > 7 || i++ >= to) return -1;
+        boolean negative = i < to && b[i] == '-';
+        if (negative) i++;
+        long cents = 0;
+        int fraction = -1; // digits after the decimal point, -1 before it
+        for (digits = 0; i < to; i++) {
+            if (b[i] == '.' && fraction < 0) {
+                fraction = 0;
+                continue;
+            }
+            int d = b[i] - '0';
+            if (d < 0 || d > 9 || fraction == 2 || ++digits > 12) return -1;
+            cents = cents * 10 + d;
+            if (fraction >= 0) fraction++;
+        }
+        if (digits == 0) return -1;
+        for (int f = Math.max(fraction, 0); f < 2; f++) cents *= 10;
+        if (cents > Integer.MAX_VALUE) return -1;
+        return SalesRecord.pack(dd, mm, (int) store, reg, (int) (negative ? -cents : cents));
+    }
+}
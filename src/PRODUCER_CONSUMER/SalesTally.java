@@ -0,0 +1,123 @@
+package PRODUCER_CONSUMER;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLongArray;
+import STATS.Histogram;
+
+// This class is one stripe of a SalesAggregator: the running totals of one consumer, kept per store, month and register, plus its record count and latency figures. The consumer is the only thread that writes to its stripe, so an update takes no lock and no CAS. Instead the stripe is a sequence lock: the consumer moves a version number to odd before it changes anything and back to even afterwards, and a reader copies the stripe between two reads of the version and keeps the copy only if the version was even and unchanged, so it never sees half a record. A reader that keeps losing to a busy consumer (a large stripe takes longer to copy than the consumer takes per record) raises a pause request; the consumer waits before its next record until the copy is done. The version and the pause request sit between two cache lines of padding, so consumers updating their stripes never write to a line another stripe uses. The totals live in an open-addressing table keyed by store, month and register, so a consumer only pays for the combinations it has actually seen. Under the same lock the stripe keeps three histograms: the latency of every record, the time the consumer spent waiting on an empty buffer, and samples of how full the buffer was; a snapshot copies them with the totals, so their counts agree with the record count.
+class SalesTally {
+    private static final int PAD = 16;  // longs of padding on each side: 128 bytes, two cache lines
+    private static final int VERSION = PAD;
+    private static final int PAUSE = PAD + 1;
+    private static final int OPTIMISTIC_READS = 8;
+
+    // Cell keys are (store * 12 + month - 1) * 8 + register, so keys sort by store, then month, then register
+    static final int MAX_STORE = Integer.MAX_VALUE / 96 - 1;
+
+    private final AtomicLongArray state = new AtomicLongArray(2 * PAD);
+    private final IntDoubleMap cells = new IntDoubleMap(8);
+    private long count;
+    private double latencyNanos;  // a sum: a long would overflow on a long-running stream with a backlog
+    private long maxLatencyNanos;
+    private final Histogram latency = new Histogram();
+    private final Histogram blocked = new Histogram();
+    private final Histogram occupancy = new Histogram();
+
+    static int key(int store, int month, int register) {
+        return (store * 12 + month - 1) * 8 + register;
+    }
+
+    static int storeOf(int key) { return key / 96; }
+    static int monthOf(int key) { return key / 8 % 12 + 1; }
+    static int registerOf(int key) { return key & 7; }
+
+    void add(SalesRecord rec, long now) {
+        begin();
+        record(now - rec.created);
+        cells.add(key(rec.storeId, rec.month, rec.register), rec.amount);
+        end();
+    }
+
+    // The same for a packed record (see SalesRecord.pack) and the time it was made.
+    void addPacked(long rec, long created, long now) {
+        begin();
+        record(now - created);
+        cells.add(key(SalesRecord.packedStore(rec), SalesRecord.packedMonth(rec), SalesRecord.packedRegister(rec)), SalesRecord.packedCents(rec) / 100.0);
+        end();
+    }
+
+    private void record(long nanos) {
+        count++;
+        latencyNanos += nanos;
+        if (nanos > maxLatencyNanos) maxLatencyNanos = nanos;
+        latency.record(nanos);
+    }
+
+    // Time the consumer spent waiting for a record because the buffer was empty (on the semaphore buffer, on its 'full' semaphore).
+    void blocked(long nanos) {
+        begin();
+        blocked.record(nanos);
+        end();
+    }
+
+    // One sample of how many records the buffer held.
+    void occupancy(int records) {
+        begin();
+        occupancy.record(records);
+        end();
+    }
+
+    private void begin() {
+        while (state.get(PAUSE) != 0) Thread.yield();
+        state.setOpaque(VERSION, state.getPlain(VERSION) + 1);
+        VarHandle.storeStoreFence();
+    }
+
+    private void end() {
+        state.setRelease(VERSION, state.getPlain(VERSION) + 1);
+    }
+
+    SalesSnapshot snapshot() {
+        SalesSnapshot s = new SalesSnapshot();
+        copyInto(s);
+        return s;
+    }
+
+    // Adds a copy of this stripe, as it was between two records, to 'into'. Safe to call from any thread at any time.
+    void copyInto(SalesSnapshot into) {
+        boolean paused = false;
+        try {
+            for (int attempt = 0; ; attempt++) {
+                if (attempt == OPTIMISTIC_READS) {
+                    state.getAndIncrement(PAUSE);
+                    paused = true;
+                }
+                long v = state.getAcquire(VERSION);
+                if ((v & 1) == 0) {
+                    int[] keys = cells.keys;
+                    double[] values = cells.values;
+                    long n = count;
+                    double latencySum = latencyNanos;
+                    long max = maxLatencyNanos;
+                    if (keys.length == values.length) {
+                        keys = keys.clone();
+                        values = values.clone();
+                        Histogram latencies = latency.copy();
+                        Histogram waits = blocked.copy();
+                        Histogram sizes = occupancy.copy();
+                        VarHandle.acquireFence();
+                        if (state.get(VERSION) == v) {
+                            into.add(keys, values, n, latencySum, max);
+                            into.latency.add(latencies);
+                            into.takeBlocked.add(waits);
+                            into.occupancy.add(sizes);
+                            return;
+                        }
+                    }
+                }
+                Thread.yield();
+            }
+        } finally {
+            if (paused) state.getAndDecrement(PAUSE);
+        }
+    }
+}
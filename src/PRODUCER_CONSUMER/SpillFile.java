@@ -0,0 +1,88 @@
+package PRODUCER_CONSUMER;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// An overflow queue on disk for the stream's spill policy. Packed records (with their stamps) that do not fit in the ring are appended to a temporary file and read back in the same order once the ring has room again. Writes and reads both go through 64 KB buffers; the reading side only pushes out the writing side's buffer when it has caught up with everything already on disk. Whenever the queue runs empty the file is cut back to nothing, so it only ever grows as large as the longest backlog. Only the stream reader thread uses it.
+class SpillFile implements Closeable {
+    private static final int RECORD_BYTES = 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer out = ByteBuffer.allocateDirect(1 << 16); // appended, not yet written
+    private final ByteBuffer in = ByteBuffer.allocateDirect(1 << 16);  // read back, not yet taken
+    private long writePos;
+    private long readPos;
+    private long size;
+    long spilled;     // records appended over the whole run
+    long maxBacklog;  // most records held at once
+
+    SpillFile() throws IOException {
+        Path path = Files.createTempFile("sales-spill", ".bin");
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+        in.limit(0);
+    }
+
+    boolean isEmpty() { return size == 0; }
+
+    long size() { return size; }
+
+    void append(long record, long created) throws IOException {
+        if (out.remaining() < RECORD_BYTES) writeOut();
+        out.putLong(record).putLong(created);
+        size++;
+        spilled++;
+        if (size > maxBacklog) maxBacklog = size;
+    }
+
+    // The oldest record and its stamp; only valid when the queue is not empty, until skip() is called.
+    long peekRecord() throws IOException {
+        fill();
+        return in.getLong(in.position());
+    }
+
+    long peekStamp() throws IOException {
+        fill();
+        return in.getLong(in.position() + 8);
+    }
+
+    void skip() throws IOException {
+        fill();
+        in.position(in.position() + RECORD_BYTES);
+        if (--size == 0) {
+            // Caught up completely: start the file over
+            out.clear();
+            in.limit(0);
+            readPos = writePos = 0;
+            channel.truncate(0);
+        }
+    }
+
+    private void fill() throws IOException {
+        if (in.remaining() >= RECORD_BYTES) return;
+        if (readPos == writePos) writeOut();
+        in.clear();
+        while (in.position() < RECORD_BYTES) {
+            int n = channel.read(in, readPos + in.position());
+            if (n < 0) throw new IOException("Spill file ended early");
+        }
+        // Only whole records count as read; a partial one is read again next time
+        in.limit(in.position() - in.position() % RECORD_BYTES);
+        readPos += in.limit();
+        in.position(0);
+    }
+
+    private void writeOut() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) writePos += channel.write(out, writePos);
+        out.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
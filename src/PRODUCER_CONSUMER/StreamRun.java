@@ -0,0 +1,121 @@
+package PRODUCER_CONSUMER;
+import java.io.*;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+// This class runs the streaming mode (--stream): a SalesStreamReader thread feeds records from 'source' (a file, or - for standard input) into a packed ring, and c consumer threads drain it for as long as the input lasts. There is no item count and no poison pill. When the input ends, or the process is asked to stop (Ctrl-C or a termination signal, through a shutdown hook), the reader hands over what it has read, replays any spilled records and closes the ring; the consumers drain it and stop, and the final totals are printed. If the reader was told to stop while it is stuck waiting for input that is not coming, its input is closed under it after a short grace period, so the read returns and the reader closes the ring itself; a reader that is still handing over records (a long spill backlog, say) is always waited for. The ring, the totals and the allocation count belong to the run; the consumers are the packed path's consumer tasks, on platform or virtual threads as --exec says.
+class StreamRun {
+    private static final long STOP_GRACE_NANOS = 500_000_000L;
+
+    private final String source;
+    private final String overflow;
+    private final int consumers;
+    private final PackedRingBuffer ring;
+    private final SalesAggregator totals;
+    private final AllocationMeter allocation = new AllocationMeter();
+
+    StreamRun(String source, String overflow, int consumers, int capacity) {
+        this.source = source;
+        this.overflow = overflow;
+        this.consumers = consumers;
+        this.ring = new PackedRingBuffer(capacity);
+        this.totals = new SalesAggregator(1, consumers);
+    }
+
+    void run() {
+        SalesStreamReader reader;
+        try {
+            FileInputStream in = source.equals("-") ? new FileInputStream(FileDescriptor.in) : new FileInputStream(source);
+            reader = new SalesStreamReader(in, ring, overflow, totals.producer(0));
+        } catch (IOException e) {
+            System.out.println("Cannot open stream " + source + ": " + e.getMessage());
+            return;
+        }
+
+        CountDownLatch reported = new CountDownLatch(1);
+        Thread hook = new Thread(() -> {
+            reader.stop();
+            try {
+                reported.await();
+            } catch (InterruptedException ignored) {}
+        });
+        Runtime.getRuntime().addShutdownHook(hook);
+
+        long start = System.nanoTime();
+        int drain = ring.capacity();
+        Thread[] threads = new Thread[consumers];
+        for (int i = 0; i < consumers; i++) {
+            int consId = i + 1;
+            SalesTally stripe = totals.stripe(i);
+            threads[i] = ProducerConsumer.newThread(() -> {
+                long since = AllocationMeter.threadBytes();
+                ProducerConsumer.packedConsumerTask(consId, ring, stripe, drain);
+                allocation.countSince(since);
+            });
+            threads[i].start();
+        }
+        Thread readerThread = new Thread(() -> {
+            long since = AllocationMeter.threadBytes();
+            reader.run();
+            allocation.countSince(since);
+        }, "stream-reader");
+        readerThread.setDaemon(true); // may be blocked on standard input when the process exits
+        readerThread.start();
+        Thread monitor = ProducerConsumer.startLiveMonitor(totals);
+        Thread dump = ProducerConsumer.startMetricsDump("stream", totals);
+
+        long stopSeen = 0;
+        while (!reader.isFinished()) {
+            try {
+                readerThread.join(100);
+            } catch (InterruptedException e) {
+                reader.stop();
+            }
+            if (reader.isStopping() && reader.isWaitingForInput()) {
+                if (stopSeen == 0) stopSeen = System.nanoTime();
+                else if (System.nanoTime() - stopSeen > STOP_GRACE_NANOS) reader.abandonInput();
+            } else {
+                stopSeen = 0;
+            }
+        }
+        for (Thread t : threads) ProducerConsumer.joinQuietly(t);
+        ProducerConsumer.stopDaemon(monitor);
+        ProducerConsumer.stopDaemon(dump);
+        double elapsedSec = (System.nanoTime() - start) / 1e9;
+        SalesSnapshot end = totals.snapshot();
+        ProducerConsumer.writeMetrics("stream", end, elapsedSec, true);
+
+        ProducerConsumer.printGlobalStats(end.stores(), end, elapsedSec);
+        if (reader.failure() != null) System.out.println("Stream ended early: " + reader.failure());
+        System.out.println("Stream " + source + ": " + reader.lines + " lines, " + reader.accepted + " records accepted, " + reader.rejected + " rejected as malformed"
+            + (overflow.equals("drop-oldest") ? ", " + reader.dropped + " dropped when the buffer was full" : "")
+            + (overflow.equals("spill") ? ", " + reader.spilled() + " spilled to disk (largest backlog " + reader.maxSpillBacklog() + ")" : ""));
+        System.out.println("Consumed " + end.count + " records in " + String.format("%.3f", elapsedSec) + " s (" + String.format("%.0f", end.count / Math.max(elapsedSec, 0.001)) + " records/sec)"
+            + (allocation.unknown() ? "" : ", allocated " + String.format("%.1f", (double) allocation.bytes() / Math.max(1, end.count)) + " bytes/record"));
+        System.out.flush();
+        reported.countDown();
+        try {
+            Runtime.getRuntime().removeShutdownHook(hook);
+        } catch (IllegalStateException ignored) {} // already shutting down
+    }
+
+    // Writes 'records' random sales records for stores 1 to 'stores' in the stream format, "dd/MM/16,store,register,amount", one per line.
+    static void writeFile(String file, int records, int stores) {
+        Random rand = new Random();
+        try (Writer w = new BufferedWriter(new FileWriter(file), 1 << 16)) {
+            StringBuilder sb = new StringBuilder(64);
+            for (int i = 0; i < records; i++) {
+                int cents = 50 + rand.nextInt(99950);
+                long rec = SalesRecord.pack(1 + rand.nextInt(30), 1 + rand.nextInt(12), 1 + rand.nextInt(stores), 1 + rand.nextInt(6), cents);
+                sb.setLength(0);
+                sb.append(SalesRecord.packedDate(rec)).append(',').append(SalesRecord.packedStore(rec)).append(',').append(SalesRecord.packedRegister(rec)).append(',')
+                    .append(cents / 100).append('.').append((char) ('0' + cents / 10 % 10)).append((char) ('0' + cents % 10)).append('\n');
+                w.append(sb);
+            }
+        } catch (IOException e) {
+            System.out.println("Error writing " + file + ": " + e.getMessage());
+            return;
+        }
+        System.out.println("Wrote " + records + " records for " + stores + " stores to " + file);
+    }
+}
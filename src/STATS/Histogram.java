@@ -0,0 +1,100 @@
+package STATS;
+import java.util.Arrays;
+import java.util.Locale;
+
+// This class is an HDR-style histogram of non-negative long values, shared by both simulators: the waiting, turnaround and response times of a CPUSCHED run, and the record latencies, blocked times (in nanoseconds) and buffer occupancy samples of a PRODUCER_CONSUMER run. Values below 128 get a bucket each; above that every power of two is split into 64 buckets, so any value is known to within 1/64 of itself (1.6%), from a few nanoseconds to hours, and the percentiles can be read without keeping the values. Recording a value is a leading-zero count, a shift and an array increment, a nanosecond or two, which is what lets a consumer record every record it takes. The bucket array only grows as far as the largest value seen (about 13 KB for values up to a second), so the thousands of consumers of the pool mode only pay for the range they actually see. A histogram has a single writer; other threads read it once the writer is done, or through a copy taken under the writer's lock (see PRODUCER_CONSUMER.SalesTally.copyInto).
+public class Histogram {
+    private static final int SUB_BITS = 7;
+    private static final int SUB = 1 << SUB_BITS;
+    private static final int HALF = SUB >> 1;
+    private static final int MAX_INDEX = index(Long.MAX_VALUE);
+
+    // The percentiles every report prints, after which it prints the maximum
+    public static final double[] PERCENTILES = {50, 99, 99.9};
+    public static final String[] PERCENTILE_NAMES = {"p50", "p99", "p99_9"};
+
+    private long[] counts = new long[0];
+    private long count;
+    private long max;
+
+    static int index(long value) {
+        if (value < SUB) return value < 0 ? 0 : (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BITS - 1);
+        return SUB + (shift - 1) * HALF + (int) (value >>> shift) - HALF;
+    }
+
+    // The largest value that falls into bucket i.
+    static long highest(int i) {
+        if (i < SUB) return i;
+        int shift = (i - SUB) / HALF + 1;
+        long sub = (i - SUB) % HALF + HALF;
+        return (sub << shift) + (1L << shift) - 1;
+    }
+
+    public void record(long value) {
+        int i = index(value);
+        if (i >= counts.length) counts = Arrays.copyOf(counts, Math.min(MAX_INDEX + 1, Math.max(i + 1, counts.length + HALF)));
+        counts[i]++;
+        count++;
+        if (value > max) max = value;
+    }
+
+    // A copy of the buckets, count and maximum; the caller makes sure no record is half done while it is taken.
+    public Histogram copy() {
+        Histogram h = new Histogram();
+        h.counts = counts.clone();
+        h.count = count;
+        h.max = max;
+        return h;
+    }
+
+    public void add(Histogram other) {
+        if (other.counts.length > counts.length) counts = Arrays.copyOf(counts, other.counts.length);
+        for (int i = 0; i < other.counts.length; i++) counts[i] += other.counts[i];
+        count += other.count;
+        if (other.max > max) max = other.max;
+    }
+
+    // Number of values recorded
+    public long count() {
+        return count;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    // The smallest recorded value that at least 'percentile' percent of the values are at or below, to bucket precision and never above the maximum; 0 when nothing has been recorded.
+    public long valueAt(double percentile) {
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(highest(i), max);
+        }
+        return max;
+    }
+
+    // "p50 x, p99 x, p99.9 x, max x", each value divided by 'unit' (1e6 turns nanoseconds into milliseconds) and formatted with 'format'.
+    public String summary(double unit, String format) {
+        StringBuilder sb = new StringBuilder();
+        for (double p : PERCENTILES) {
+            sb.append('p').append(p == (long) p ? String.valueOf((long) p) : String.valueOf(p)).append(' ').append(String.format(format, valueAt(p) / unit)).append(", ");
+        }
+        return sb.append("max ").append(String.format(format, max / unit)).toString();
+    }
+
+    // Appends {"count": n, "p50": x, "p99": x, "p99_9": x, "max": x}, the values divided by 'unit'.
+    public void appendJson(StringBuilder sb, double unit) {
+        sb.append("{\"count\": ").append(count);
+        for (int k = 0; k < PERCENTILES.length; k++) {
+            sb.append(", \"").append(PERCENTILE_NAMES[k]).append("\": ").append(json(valueAt(PERCENTILES[k]) / unit));
+        }
+        sb.append(", \"max\": ").append(json(max / unit)).append('}');
+    }
+
+    private static String json(double v) {
+        return v == (long) v ? String.valueOf((long) v) : String.format(Locale.ROOT, "%.4f", v);
+    }
+}
@@ -0,0 +1,39 @@
+package STATS;
+import java.io.BufferedReader;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+
+// This class reads the peak memory use of the JVM for the reports of both simulators. On Linux it reads the VmHWM high-water mark the kernel keeps for the process, which can be reset between runs; elsewhere it falls back to the sum of the peak usage of the JVM memory pools, which covers the heap but not native memory.
+public final class PeakMemory {
+    private PeakMemory() {}
+
+    // Resets the kernel's peak resident set size for this process so the next reading covers one run only. Returns false where that is not possible (not Linux, or not permitted), in which case the peak covers the whole JVM lifetime.
+    public static boolean reset() {
+        try (FileOutputStream f = new FileOutputStream("/proc/self/clear_refs")) {
+            f.write('5');
+            return true;
+        } catch (IOException | SecurityException e) {
+            return false;
+        }
+    }
+
+    // The peak resident set size of the JVM in megabytes.
+    public static long mb() {
+        try (BufferedReader br = new BufferedReader(new FileReader("/proc/self/status"))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.startsWith("VmHWM:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", "")) / 1024;
+                }
+            }
+        } catch (Exception ignored) {}
+        long bytes = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            bytes += pool.getPeakUsage().getUsed();
+        }
+        return bytes / (1024 * 1024);
+    }
+}